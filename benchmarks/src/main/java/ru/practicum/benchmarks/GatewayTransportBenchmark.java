@@ -0,0 +1,93 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.gateway.ShareItGateway;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the gateway proxy path with 1000 concurrent clients for both shareit-server transports.
+ * shareit-server is replaced by an {@link UpstreamStub}: the blocking transport is bounded
+ * by tomcatThreads / latency, the reactive one by the connection pool.
+ * The client count is the JMH thread count and can be changed with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(1000)
+@Fork(value = 1, jvmArgsAppend = {"-Xss512k", "-Dsun.net.httpserver.maxIdleConnections=4096"})
+public class GatewayTransportBenchmark {
+    @Param({"blocking", "reactive"})
+    private String transport;
+
+    @Param({"50"})
+    private int upstreamLatencyMillis;
+
+    @Param({"200"})
+    private int tomcatThreads;
+
+    private UpstreamStub upstream;
+
+    private ConfigurableApplicationContext gateway;
+
+    private HttpClient client;
+
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        upstream = UpstreamStub.start(upstreamLatencyMillis);
+
+        gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                .properties(
+                        "spring.config.name=gateway-benchmark",
+                        "shareit-server.url=" + upstream.url(),
+                        "shareit-server.transport=" + transport,
+                        "server.tomcat.threads.max=" + tomcatThreads)
+                .run();
+        String port = gateway.getEnvironment().getRequiredProperty("local.server.port");
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newCachedThreadPool())
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1")).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        gateway.close();
+        upstream.stop();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
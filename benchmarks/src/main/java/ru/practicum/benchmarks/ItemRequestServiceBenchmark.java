@@ -0,0 +1,97 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.request.dto.ItemRequestDto;
+import ru.practicum.server.request.model.ItemRequest;
+import ru.practicum.server.request.repository.ItemRequestRepository;
+import ru.practicum.server.request.service.ItemRequestService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request listings, which attach the items created for every request of the page, against H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemRequestServiceBenchmark {
+    @Param({"20", "200"})
+    private int requests;
+
+    @Param({"3"})
+    private int itemsPerRequest;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemRequestService itemRequestService;
+
+    private Long requesterId;
+
+    private Long ownerId;
+
+    @Setup
+    public void setUp() {
+        context = ServerContext.start();
+        itemRequestService = context.getBean(ItemRequestService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRequestRepository itemRequestRepository = context.getBean(ItemRequestRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+
+        User requester = userRepository.save(new User(null, "Alex", "alex.b@yandex.ru"));
+        User owner = userRepository.save(new User(null, "Bill", "bill.d@yandex.ru"));
+        requesterId = requester.getId();
+        ownerId = owner.getId();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ItemRequest> savedRequests = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            savedRequests.add(new ItemRequest(null, "request " + i, requester, now.minusHours(i)));
+        }
+        itemRequestRepository.saveAll(savedRequests);
+
+        List<Item> items = new ArrayList<>();
+        for (ItemRequest request : savedRequests) {
+            for (int i = 0; i < itemsPerRequest; i++) {
+                items.add(new Item(null, "item " + i, "description", true, owner, request));
+            }
+        }
+        itemRepository.saveAll(items);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> getAllByRequester() {
+        return itemRequestService.getAllByRequester(requesterId, 0, requests);
+    }
+
+    @Benchmark
+    public List<ItemRequestDto> getAll() {
+        return itemRequestService.getAll(ownerId, 0, requests);
+    }
+}
@@ -0,0 +1,102 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owner's item listing with last/next bookings and comments against H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+    @Param({"20", "200"})
+    private int items;
+
+    @Param({"5"})
+    private int bookingsPerItem;
+
+    @Param({"2"})
+    private int commentsPerItem;
+
+    private ConfigurableApplicationContext context;
+
+    private ItemService itemService;
+
+    private Long ownerId;
+
+    @Setup
+    public void setUp() {
+        context = ServerContext.start();
+        itemService = context.getBean(ItemService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        CommentRepository commentRepository = context.getBean(CommentRepository.class);
+
+        User owner = userRepository.save(new User(null, "Alex", "alex.b@yandex.ru"));
+        User booker = userRepository.save(new User(null, "Bill", "bill.d@yandex.ru"));
+        ownerId = owner.getId();
+
+        List<Item> savedItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            savedItems.add(new Item(null, "item " + i, "description " + i, true, owner, null));
+        }
+        itemRepository.saveAll(savedItems);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (Item item : savedItems) {
+            for (int i = 0; i < bookingsPerItem; i++) {
+                LocalDateTime start = now.plusDays(i - bookingsPerItem / 2);
+                bookings.add(new Booking(null, start, start.plusHours(1), item, booker, BookingStatus.APPROVED));
+            }
+            for (int i = 0; i < commentsPerItem; i++) {
+                comments.add(new Comment(null, "comment " + i, item, booker, now.minusDays(i)));
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDto> getAll() {
+        return itemService.getAll(ownerId);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the response bodies with an ObjectMapper configured the way Spring Boot configures it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+    @Param({"10", "1000"})
+    private int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<BookingDto> bookings;
+
+    private List<ItemDto> items;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.now();
+        bookings = new ArrayList<>(size);
+        items = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            bookings.add(new BookingDto(i, start.plusDays(i), start.plusDays(i + 1), BookingStatus.APPROVED,
+                    2L, "Bill", i, "item " + i));
+            ItemDto item = new ItemDto(i, "item " + i, "description " + i, true, null);
+            item.setLastBooking(new BookingForItemDto(i, start.minusDays(2), start.minusDays(1), i, 2L));
+            item.setNextBooking(new BookingForItemDto(i + 1, start.plusDays(1), start.plusDays(2), i, 2L));
+            item.setComments(List.of(new CommentDto(i, "comment", "Bill", start)));
+            items.add(item);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeBookings() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    @Benchmark
+    public byte[] serializeItems() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(items);
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.benchmarks;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.model.BookingStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logging overhead on the request path. "perCall" is the former controller logging, an INFO line with the
+ * DTO per request; "sampled" is the current one, a DEBUG line that is switched off plus the access log line
+ * for one request in a hundred. The appender writes to a file, synchronously or through the bounded
+ * AsyncAppender of logback-spring.xml, which drops INFO events instead of blocking once its queue is 80% full.
+ * The async throughput therefore includes the events that were never written: on teardown the number of
+ * logged, written and discarded events is printed, and the async runs are only comparable with the sync ones
+ * if nothing was discarded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final double SAMPLE_RATE = 0.01;
+
+    private static final int QUEUE_SIZE = 8192;
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    @Param({"perCall", "sampled"})
+    private String requestLog;
+
+    private LoggerContext context;
+
+    private Logger log;
+
+    private Path file;
+
+    private BookingDto booking;
+
+    private final LongAdder logged = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("shareit-logging", ".log");
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%t] %logger{39} : %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>() {
+            @Override
+            protected void subAppend(ILoggingEvent event) {
+                written.increment();
+                super.subAppend(event);
+            }
+        };
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> root = fileAppender;
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(QUEUE_SIZE);
+            async.setNeverBlock(true);
+            async.addAppender(fileAppender);
+            async.start();
+            root = async;
+        }
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(root);
+        log = context.getLogger(LoggingBenchmark.class);
+
+        LocalDateTime start = LocalDateTime.now();
+        booking = new BookingDto(1L, start, start.plusDays(1), BookingStatus.WAITING, 2L, "Bill", 3L, "Drill");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        // stopping the async appender writes the events still queued
+        context.stop();
+        System.out.printf("%n%s/%s: %d events logged, %d written, %d discarded%n", appender, requestLog,
+                logged.sum(), written.sum(), logged.sum() - written.sum());
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void request() {
+        if ("perCall".equals(requestLog)) {
+            log.info("POST:/bookings request received with parameters {}", booking);
+            logged.increment();
+            return;
+        }
+        log.debug("POST:/bookings request received with parameters {}", booking);
+        if (ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE) {
+            log.info("{} {} {} {}ms", "POST", "/bookings", 200, 3);
+            logged.increment();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.practicum.server.booking.dto.BookingMapper;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.item.dto.ItemMapper;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.request.model.ItemRequest;
+import ru.practicum.server.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"10", "1000"})
+    private int size;
+
+    private List<Booking> bookings;
+
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        User owner = new User(1L, "Alex", "alex.b@yandex.ru");
+        User booker = new User(2L, "Bill", "bill.d@yandex.ru");
+        ItemRequest request = new ItemRequest(1L, "description", booker, LocalDateTime.now());
+        LocalDateTime start = LocalDateTime.now();
+        bookings = new ArrayList<>(size);
+        items = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            Item item = new Item(i, "item " + i, "description " + i, true, owner, i % 2 == 0 ? request : null);
+            items.add(item);
+            bookings.add(new Booking(i, start.plusDays(i), start.plusDays(i + 1), item, booker,
+                    BookingStatus.APPROVED));
+        }
+    }
+
+    @Benchmark
+    public void toBookingDto(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            blackhole.consume(BookingMapper.toBookingDto(booking));
+        }
+    }
+
+    @Benchmark
+    public void toItemDto(Blackhole blackhole) {
+        for (Item item : items) {
+            blackhole.consume(ItemMapper.toItemDto(item));
+        }
+    }
+}
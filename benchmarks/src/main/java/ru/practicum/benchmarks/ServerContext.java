@@ -0,0 +1,23 @@
+package ru.practicum.benchmarks;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.server.ShareItServer;
+
+import java.util.UUID;
+
+/**
+ * Starts the server application without the web layer against a fresh in-memory H2 database.
+ */
+public final class ServerContext {
+    private ServerContext() {
+    }
+
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ShareItServer.class)
+                .properties(
+                        "spring.config.name=server-benchmark",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .run();
+    }
+}
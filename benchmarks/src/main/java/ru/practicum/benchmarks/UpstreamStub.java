@@ -0,0 +1,58 @@
+package ru.practicum.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stub of shareit-server answering GET /users/{id} after a fixed latency, so a gateway in front of it
+ * is the only bottleneck. The forked JVM needs -Dsun.net.httpserver.maxIdleConnections above the
+ * gateway pool size, otherwise the JDK server closes keep-alive connections still held by the pool.
+ */
+final class UpstreamStub {
+    private static final byte[] USER = "{\"id\":1,\"name\":\"Alex\",\"email\":\"alex.b@yandex.ru\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private UpstreamStub(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    static UpstreamStub start(int latencyMillis) throws IOException {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 8192);
+        server.setExecutor(executor);
+        server.createContext("/users/", exchange -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, USER.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(USER);
+            }
+        });
+        server.start();
+        return new UpstreamStub(server, executor);
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
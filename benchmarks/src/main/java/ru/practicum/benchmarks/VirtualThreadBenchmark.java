@@ -0,0 +1,111 @@
+package ru.practicum.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.gateway.ShareItGateway;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the gateway with 5000 concurrent clients and slow shareit-server responses
+ * for Tomcat platform worker threads and for virtual threads (spring.threads.virtual.enabled).
+ * The blocking transport is used and its connection pool is sized to the client count, so with platform
+ * threads throughput is bounded by tomcatThreads / latency; the virtual run shows how far that bound moves
+ * on the given runtime, compare both runs on the same JDK only.
+ * On teardown the number of live Tomcat worker threads and the JVM peak of platform threads
+ * are printed; the peak includes the JMH client threads, which are the same for both modes.
+ * The virtual mode needs a Java 21+ runtime, on older JDKs run it with -p threads=platform.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(VirtualThreadBenchmark.CLIENTS)
+@Fork(value = 1, jvmArgsAppend = {"-Xss512k", "-Dsun.net.httpserver.maxIdleConnections=8192"})
+public class VirtualThreadBenchmark {
+    static final int CLIENTS = 5000;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"200"})
+    private int upstreamLatencyMillis;
+
+    @Param({"200"})
+    private int tomcatThreads;
+
+    private UpstreamStub upstream;
+
+    private ConfigurableApplicationContext gateway;
+
+    private HttpClient client;
+
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        upstream = UpstreamStub.start(upstreamLatencyMillis);
+
+        gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                .properties(
+                        "spring.config.name=gateway-benchmark",
+                        "shareit-server.url=" + upstream.url(),
+                        "shareit-server.transport=blocking",
+                        "shareit-server.http-client.max-total=" + CLIENTS,
+                        "shareit-server.http-client.max-per-route=" + CLIENTS,
+                        "spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                        "server.tomcat.threads.max=" + tomcatThreads)
+                .run();
+        String port = gateway.getEnvironment().getRequiredProperty("local.server.port");
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newCachedThreadPool())
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/1")).build();
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long tomcatWorkers = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("http-nio-") && t.getName().contains("-exec-"))
+                .count();
+        System.out.printf("%n%s threads: %d Tomcat worker threads, %d peak platform threads%n",
+                threads, tomcatWorkers, threadBean.getPeakThreadCount());
+        gateway.close();
+        upstream.stop();
+    }
+
+    @Benchmark
+    public int getUser() throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
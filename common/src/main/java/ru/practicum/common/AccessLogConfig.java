@@ -0,0 +1,19 @@
+package ru.practicum.common;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registers the {@link AccessLogFilter} of the servlet applications.
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AccessLogConfig {
+
+    @Bean
+    public AccessLogFilter accessLogFilter(@Value("${shareit.access-log.sample-rate:0.01}") double sampleRate) {
+        return new AccessLogFilter(sampleRate);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.common;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access log of a sample of requests: method, path, status and duration of roughly
+ * shareit.access-log.sample-rate of all requests, plus every request answered with 5xx.
+ * Replaces an INFO line per controller call; the controllers log their arguments at DEBUG.
+ * A request whose handling throws is logged as 500, the status the container answers it with.
+ */
+@Slf4j
+public class AccessLogFilter extends OncePerRequestFilter {
+    private final double sampleRate;
+
+    public AccessLogFilter(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (failed) {
+                log(request, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, start, sampled);
+            } else if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response.getStatus(), start, sampled);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response.getStatus(), start, sampled);
+            }
+        }
+    }
+
+    private static void log(HttpServletRequest request, int status, long start, boolean sampled) {
+        if (sampled || status >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+            log.info("{} {} {} {}ms", request.getMethod(), request.getRequestURI(), status,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+}
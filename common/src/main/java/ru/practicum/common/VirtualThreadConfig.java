@@ -0,0 +1,44 @@
+package ru.practicum.common;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every Tomcat request on its own virtual thread instead of the fixed worker pool.
+ * Enabled with spring.threads.virtual.enabled=true, the key Spring Boot 3.2+ reads itself,
+ * so this class can be dropped after the upgrade. Requires a Java 21+ runtime; the code is still
+ * compiled for Java 11, so the executor is looked up reflectively and startup fails on older JDKs.
+ * Concurrency is still bounded by the pools behind the requests: the Hikari pool in shareit-server and, with
+ * the blocking transport, shareit-server.http-client.max-total in the gateway, which should be raised with it.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("spring.threads.virtual.enabled requires Java 21+, running on "
+                    + Runtime.version(), e);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Virtual thread executor could not be created", e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.common;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AccessLogFilterTest {
+    private final Logger logger = (Logger) LoggerFactory.getLogger(AccessLogFilter.class);
+
+    private final ListAppender<ILoggingEvent> events = new ListAppender<>();
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void beforeEach() {
+        events.start();
+        logger.addAppender(events);
+    }
+
+    @AfterEach
+    void afterEach() {
+        logger.detachAppender(events);
+    }
+
+    @Test
+    void doFilter_whenNotSampled_shouldNotLogSuccess() throws Exception {
+        new AccessLogFilter(0).doFilter(request, response, new MockFilterChain());
+
+        assertThat(events.list).isEmpty();
+    }
+
+    @Test
+    void doFilter_whenSampled_shouldLogStatus() throws Exception {
+        new AccessLogFilter(1).doFilter(request, response, new MockFilterChain());
+
+        assertThat(events.list).singleElement()
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .asString()
+                .startsWith("GET /items/1 200 ");
+    }
+
+    @Test
+    void doFilter_whenHandlerThrows_shouldLog500() {
+        HttpServlet failing = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                throw new IllegalStateException("failed");
+            }
+        };
+
+        assertThrows(IllegalStateException.class,
+                () -> new AccessLogFilter(0).doFilter(request, response, new MockFilterChain(failing)));
+        assertThat(events.list).singleElement()
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .asString()
+                .startsWith("GET /items/1 500 ");
+    }
+}
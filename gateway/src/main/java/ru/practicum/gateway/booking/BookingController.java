@@ -13,12 +13,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.booking.dto.BookItemRequestDto;
 import ru.practicum.gateway.booking.dto.BookingState;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -29,44 +32,64 @@ public class BookingController {
     private final BookingClient bookingClient;
 
     @GetMapping
-    public ResponseEntity<Object> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
-                                         @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                         @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                         @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Getting a reservation with the following status {}, userId={}, from={}, size={}", stateParam, userId, from, size);
+    public Mono<ResponseEntity<Object>> getAll(@RequestHeader("X-Sharer-User-Id") long userId,
+                                               @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                               @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                               @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                               @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            log.debug("Getting a reservation with the following status {}, userId={}, cursor={}, size={}",
+                    stateParam, userId, cursor, size);
+            return bookingClient.getBookingsPage(userId, bookingStateFrom(stateParam), cursor, size);
+        }
+        log.debug("Getting a reservation with the following status {}, userId={}, from={}, size={}", stateParam, userId, from, size);
         return bookingClient.getBookings(userId, bookingStateFrom(stateParam), from, size);
     }
 
     @GetMapping("/owner")
-    public ResponseEntity<Object> getOwner(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestParam(name = "state", defaultValue = "all") String stateParam,
-                                           @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
-                                                             Integer from,
-                                           @Positive @RequestParam(name = "size", defaultValue = "10")
-                                                             Integer size) {
-        log.info("Getting the owner's reservation with the status {}, userId={}, from={}, size={}", stateParam, userId, from, size);
+    public Mono<ResponseEntity<Object>> getOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0")
+                                                                   Integer from,
+                                                 @Positive @RequestParam(name = "size", defaultValue = "10")
+                                                                   Integer size,
+                                                 @RequestParam(name = "cursor", required = false) String cursor) {
+        if (cursor != null) {
+            log.debug("Getting the owner's reservation with the status {}, userId={}, cursor={}, size={}",
+                    stateParam, userId, cursor, size);
+            return bookingClient.getBookingsPageCurrentOwner(userId, bookingStateFrom(stateParam), cursor, size);
+        }
+        log.debug("Getting the owner's reservation with the status {}, userId={}, from={}, size={}", stateParam, userId, from, size);
         return bookingClient.getBookingCurrentOwner(userId, bookingStateFrom(stateParam), from, size);
     }
 
+    @GetMapping("/owner/export")
+    public void exportOwner(@RequestHeader("X-Sharer-User-Id") long userId,
+                            @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                            HttpServletResponse response) throws IOException {
+        log.debug("Exporting the owner's reservations with the status {}, userId={}", stateParam, userId);
+        bookingClient.exportBookingsCurrentOwner(userId, bookingStateFrom(stateParam), response);
+    }
+
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
-                                           @RequestBody @Valid BookItemRequestDto requestDto) {
-        log.info("Creating a reservation {}, userId={}", requestDto, userId);
+    public Mono<ResponseEntity<Object>> bookItem(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                 @RequestBody @Valid BookItemRequestDto requestDto) {
+        log.debug("Creating a reservation {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @PathVariable Long bookingId) {
-        log.info("Getting a reservation {}, userId={}", bookingId, userId);
+    public Mono<ResponseEntity<Object>> getBooking(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                   @PathVariable Long bookingId) {
+        log.debug("Getting a reservation {}, userId={}", bookingId, userId);
         return bookingClient.getBooking(userId, bookingId);
     }
 
     @PatchMapping("/{bookingId}")
-    public ResponseEntity<Object> approveStatus(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                @PathVariable Long bookingId,
-                                                @RequestParam boolean approved) {
-        log.info("Confirmation of booking status {}", bookingId);
+    public Mono<ResponseEntity<Object>> approveStatus(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                      @PathVariable Long bookingId,
+                                                      @RequestParam boolean approved) {
+        log.debug("Confirmation of booking status {}", bookingId);
         return bookingClient.approveStatus(userId, bookingId, approved);
     }
 
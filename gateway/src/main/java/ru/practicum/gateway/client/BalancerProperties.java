@@ -0,0 +1,33 @@
+package ru.practicum.gateway.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Health checks and outlier ejection of the shareit-server instances listed in shareit-server.url.
+ * The interval of the health checks is shareit-server.balancer.health-check-interval.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.balancer")
+public class BalancerProperties {
+    /**
+     * Path of the health endpoint of shareit-server, an instance is healthy while it answers with 2xx.
+     */
+    private String healthPath = "/actuator/health";
+
+    private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Consecutive transport errors, timeouts or 502, 503 and 504 answers after which an instance is ejected.
+     */
+    private int ejectionErrors = 5;
+
+    /**
+     * How long an ejected instance receives no requests.
+     */
+    private Duration ejectionTime = Duration.ofSeconds(30);
+}
@@ -0,0 +1,47 @@
+package ru.practicum.gateway.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Hedged GET requests to shareit-server and the budget that bounds them.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.hedging")
+public class HedgingProperties {
+    /**
+     * Routes that are hedged, paths of a client with ids replaced by {id}. Only reads of a single resource
+     * are worth a second request, listings and searches would double the most expensive calls.
+     */
+    private List<String> routes = List.of("/items/{id}", "/bookings/{id}");
+
+    /**
+     * A second request is sent when the first one takes longer than this percentile of the route.
+     */
+    private double percentile = 0.95;
+
+    /**
+     * Calls of a route timed before it is hedged.
+     */
+    private long minimumCalls = 100;
+
+    /**
+     * Hedges are never sent earlier than this.
+     */
+    private Duration minimumDelay = Duration.ofMillis(5);
+
+    /**
+     * Hedges allowed per request sent, 0.1 adds at most 10% of requests to shareit-server.
+     */
+    private double budgetRatio = 0.1;
+
+    /**
+     * Hedges that can be saved up while shareit-server is fast and sent at once when it slows down.
+     */
+    private int budgetBurst = 10;
+}
@@ -0,0 +1,63 @@
+package ru.practicum.gateway.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeouts of the HTTP client shared by all clients of shareit-server.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class HttpClientProperties {
+    /**
+     * Maximum number of open connections to all shareit-server instances.
+     */
+    private int maxTotal = 200;
+
+    /**
+     * Maximum number of open connections per route, i.e. per shareit-server instance.
+     */
+    private int maxPerRoute = 200;
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long a request waits for a free connection of the pool.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How long a connection is kept alive when the server does not send a Keep-Alive timeout.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    /**
+     * Idle connections are closed by a background thread after this time.
+     */
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    /**
+     * Pooled connections that were idle longer than this are checked before being reused.
+     */
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    /**
+     * Largest body of a shareit-server answer that is read into memory; a larger one fails the request with 502.
+     * Not limited unless set. Streamed answers are never limited.
+     */
+    private DataSize maxBodySize;
+
+    /**
+     * The max-body-size in bytes, -1 if it is not limited.
+     */
+    public int getMaxBodySizeInBytes() {
+        return maxBodySize == null ? -1 : Math.toIntExact(maxBodySize.toBytes());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.gateway.client;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Copies shareit-server response headers to the gateway response and conditional request headers to shareit-server.
+ * Hop-by-hop headers describe the upstream connection and are dropped,
+ * the servlet container sets its own framing for the passed-through body.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ProxyHeaders {
+    private static final Set<String> HOP_BY_HOP = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    private static final List<String> CONDITIONAL = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE);
+
+    static {
+        HOP_BY_HOP.addAll(Set.of(HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.PROXY_AUTHENTICATE,
+                HttpHeaders.PROXY_AUTHORIZATION, HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.TRANSFER_ENCODING,
+                HttpHeaders.UPGRADE));
+    }
+
+    /**
+     * Adds the conditional headers of the gateway request being handled, so that shareit-server can answer
+     * 304 Not Modified when the client already has the current representation.
+     */
+    public static void addConditional(HttpHeaders headers) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        for (String name : CONDITIONAL) {
+            Collections.list(request.getHeaders(name)).forEach(value -> headers.add(name, value));
+        }
+    }
+
+    public static HttpHeaders of(HttpHeaders upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        upstream.forEach((name, values) -> {
+            if (!HOP_BY_HOP.contains(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+
+    /**
+     * Sets the end-to-end headers on a response written through the servlet API.
+     */
+    public static void copyTo(HttpHeaders upstream, HttpServletResponse response) {
+        of(upstream).forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+    }
+}
@@ -0,0 +1,71 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking transport: WebClient over a Reactor Netty connection pool shared by all clients of shareit-server.
+ * Controllers release the servlet thread while the call is in flight, so the number of concurrent proxied
+ * requests is bounded by the pool rather than by the servlet thread pool.
+ * The pool is published as reactor.netty.connection.provider.* metrics.
+ * Requests are hedged with shareit-server.hedging.enabled=true, see {@link RequestHedger}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "shareit-server.transport", havingValue = "reactive")
+@EnableConfigurationProperties({HttpClientProperties.class, HedgingProperties.class})
+public class ReactiveHttpClientConfig {
+    private static final String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider shareItServerConnectionProvider(HttpClientProperties properties) {
+        return ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getKeepAlive())
+                .evictInBackground(properties.getIdleEviction())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit-server.hedging.enabled", havingValue = "true")
+    public RequestHedger requestHedger(HedgingProperties properties, MeterRegistry registry) {
+        return new RequestHedger(properties, registry);
+    }
+
+    @Bean
+    public ServerTransportFactory serverTransportFactory(ServerEndpoints endpoints,
+                                                         WebClient.Builder builder,
+                                                         ConnectionProvider connectionProvider,
+                                                         HttpClientProperties properties,
+                                                         ObjectProvider<ServerTransportDecorator> decorators) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+        WebClient webClient = builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs()
+                        .maxInMemorySize(properties.getMaxBodySizeInBytes()))
+                .build();
+        return apiPrefix -> {
+            ServerTransport transport = endpoints.balance(serverUrl -> new WebClientTransport(webClient.mutate()
+                    .baseUrl(serverUrl + apiPrefix)
+                    .build()));
+            for (ServerTransportDecorator decorator : decorators.orderedStream().collect(Collectors.toList())) {
+                transport = decorator.wrap(apiPrefix, transport);
+            }
+            return transport;
+        };
+    }
+}
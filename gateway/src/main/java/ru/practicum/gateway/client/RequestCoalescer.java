@@ -0,0 +1,106 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets concurrent identical GET requests share one call to shareit-server: a request that arrives while
+ * the same user already waits for the same URL with the same conditional headers subscribes to that call
+ * instead of sending its own, and all of them receive its response. Nothing is kept after the answer.
+ * Requests are counted as shareit.server.coalesced with the tag result=sent or joined,
+ * the collapse ratio is joined / (sent + joined); shareit.server.coalesced.active is the number of calls
+ * being waited for.
+ */
+@Component
+@Order(300)
+@ConditionalOnProperty(name = "shareit-server.coalescing.enabled", havingValue = "true")
+public class RequestCoalescer implements ServerTransportDecorator, MeterBinder {
+    private static final String METRIC = "shareit.server.coalesced";
+
+    private final Map<String, Mono<ResponseEntity<Object>>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder sent = new LongAdder();
+
+    private final LongAdder joined = new LongAdder();
+
+    @Override
+    public ServerTransport wrap(String apiPrefix, ServerTransport transport) {
+        return new CoalescingTransport(apiPrefix, transport);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC, sent, LongAdder::sum)
+                .description("GET requests sent to shareit-server by the gateway")
+                .tag("result", "sent")
+                .register(registry);
+        FunctionCounter.builder(METRIC, joined, LongAdder::sum)
+                .description("GET requests answered with the response of an identical request in flight")
+                .tag("result", "joined")
+                .register(registry);
+        Gauge.builder(METRIC + ".active", inFlight, Map::size)
+                .description("distinct GET requests waiting for shareit-server")
+                .register(registry);
+    }
+
+    private class CoalescingTransport implements ServerTransport {
+        private final String apiPrefix;
+
+        private final ServerTransport transport;
+
+        CoalescingTransport(String apiPrefix, ServerTransport transport) {
+            this.apiPrefix = apiPrefix;
+            this.transport = transport;
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     HttpEntity<?> request) {
+            if (method != HttpMethod.GET) {
+                return transport.exchange(method, path, parameters, request);
+            }
+            HttpHeaders headers = request.getHeaders();
+            String key = RequestKey.of(apiPrefix, path, parameters, headers)
+                    + " " + headers.getIfNoneMatch() + " " + headers.getIfModifiedSince();
+            return Mono.defer(() -> {
+                Mono<ResponseEntity<Object>> call = inFlight.get(key);
+                if (call == null) {
+                    Mono<ResponseEntity<Object>> sending = transport.exchange(method, path, parameters, request)
+                            .doFinally(signal -> inFlight.remove(key))
+                            .cache();
+                    call = inFlight.putIfAbsent(key, sending);
+                    if (call == null) {
+                        sent.increment();
+                        return sending;
+                    }
+                }
+                joined.increment();
+                return call;
+            });
+        }
+
+        @Override
+        public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                           HttpServletResponse response) throws IOException {
+            transport.stream(path, parameters, headers, response);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Hedges GET requests to shareit-server: when the answer takes longer than the given percentile of the latency
+ * of its route, the same request is sent a second time and the first answer of the two is used, the other call
+ * is cancelled. Routes are the paths of a client without the query and with ids replaced, e.g. /items/{id};
+ * only the routes listed in shareit-server.hedging.routes are hedged and their latency is published
+ * as shareit.server.latency.
+ * Every request adds budget-ratio of a hedge to a budget shared by all routes and every hedge takes a whole one,
+ * so hedges add at most that share of requests to shareit-server. Hedges are counted as shareit.server.hedged
+ * with the tag result=sent, won or denied when the budget was empty.
+ * Used with the reactive transport only, see {@link ReactiveHttpClientConfig}: both calls stay non-blocking
+ * on the threads of the transport, while a blocking first call would hold the subscribing thread until it
+ * returns whatever the hedge answers.
+ */
+@Order(250)
+public class RequestHedger implements ServerTransportDecorator {
+    private static final String METRIC = "shareit.server.hedged";
+
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+");
+
+    private static final long DELAY_REFRESH = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Budget taken by a hedge, the budget is kept in thousandths of a hedge.
+     */
+    private static final long HEDGE = 1000;
+
+    private final HedgingProperties properties;
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    private final AtomicLong budget = new AtomicLong();
+
+    private final long deposit;
+
+    private final long maximumBudget;
+
+    private final Counter sent;
+
+    private final Counter won;
+
+    private final Counter denied;
+
+    public RequestHedger(HedgingProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+        this.deposit = Math.round(properties.getBudgetRatio() * HEDGE);
+        this.maximumBudget = properties.getBudgetBurst() * HEDGE;
+        this.sent = counter("sent", "hedged requests sent to shareit-server");
+        this.won = counter("won", "hedged requests answered before the first call");
+        this.denied = counter("denied", "hedged requests not sent because the budget was empty");
+    }
+
+    @Override
+    public ServerTransport wrap(String apiPrefix, ServerTransport transport) {
+        return new HedgingTransport(apiPrefix, transport);
+    }
+
+    private Counter counter(String result, String description) {
+        return Counter.builder(METRIC)
+                .description(description)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void deposit() {
+        budget.accumulateAndGet(deposit, (current, added) -> Math.min(current + added, maximumBudget));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < HEDGE) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - HEDGE));
+        return true;
+    }
+
+    private class Route {
+        private final Timer latency;
+
+        /**
+         * Nanoseconds after which the route is hedged, negative until enough calls were timed.
+         */
+        private volatile long delay = -1;
+
+        private volatile long refreshedAt = System.nanoTime() - DELAY_REFRESH;
+
+        Route(String name) {
+            latency = Timer.builder("shareit.server.latency")
+                    .description("calls to shareit-server per route, hedges included")
+                    .tag("route", name)
+                    .publishPercentiles(properties.getPercentile())
+                    .register(registry);
+        }
+
+        long delay(long now) {
+            if (now - refreshedAt > DELAY_REFRESH) {
+                refreshedAt = now;
+                ValueAtPercentile[] percentiles = latency.takeSnapshot().percentileValues();
+                delay = latency.count() < properties.getMinimumCalls() || percentiles.length == 0
+                        ? -1
+                        : Math.max(properties.getMinimumDelay().toNanos(),
+                        (long) percentiles[0].value(TimeUnit.NANOSECONDS));
+            }
+            return delay;
+        }
+
+        /**
+         * Times the call until it answers, fails or is cancelled: a call cancelled when the other one answered
+         * took at least that long, leaving it out would lower the percentile to the winners.
+         */
+        Mono<ResponseEntity<Object>> timed(Mono<ResponseEntity<Object>> call) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return call.doFinally(signal -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            });
+        }
+    }
+
+    private class HedgingTransport implements ServerTransport {
+        private final String apiPrefix;
+
+        private final ServerTransport transport;
+
+        HedgingTransport(String apiPrefix, ServerTransport transport) {
+            this.apiPrefix = apiPrefix;
+            this.transport = transport;
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     HttpEntity<?> request) {
+            String name = routeOf(path);
+            if (method != HttpMethod.GET || !properties.getRoutes().contains(name)) {
+                return transport.exchange(method, path, parameters, request);
+            }
+            Route route = routes.computeIfAbsent(name, Route::new);
+            return Mono.defer(() -> {
+                deposit();
+                Mono<ResponseEntity<Object>> first = route.timed(transport.exchange(method, path, parameters, request));
+                long delay = route.delay(System.nanoTime());
+                if (delay < 0) {
+                    return first;
+                }
+                Mono<ResponseEntity<Object>> hedge = Mono.delay(Duration.ofNanos(delay))
+                        .flatMap(tick -> {
+                            if (!withdraw()) {
+                                denied.increment();
+                                return Mono.never();
+                            }
+                            sent.increment();
+                            return route.timed(transport.exchange(method, path, parameters, request))
+                                    .doOnNext(response -> won.increment());
+                        });
+                return Mono.firstWithSignal(hedge, first);
+            });
+        }
+
+        @Override
+        public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                           HttpServletResponse response) throws IOException {
+            transport.stream(path, parameters, headers, response);
+        }
+
+        private String routeOf(String path) {
+            int query = path.indexOf('?');
+            return apiPrefix + ID_SEGMENT.matcher(query < 0 ? path : path.substring(0, query)).replaceAll("/{id}");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.gateway.client;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.Nullable;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Identifies a request to shareit-server by the user it is sent for and its expanded URL.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class RequestKey {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    static String of(String apiPrefix, String path, @Nullable Map<String, Object> parameters, HttpHeaders headers) {
+        String uri = UriComponentsBuilder.fromUriString(apiPrefix + path)
+                .buildAndExpand(parameters != null ? parameters : Map.of())
+                .toUriString();
+        return headers.getFirst(USER_HEADER) + " " + uri;
+    }
+}
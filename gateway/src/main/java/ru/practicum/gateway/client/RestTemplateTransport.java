@@ -0,0 +1,115 @@
+package ru.practicum.gateway.client;
+
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Blocking transport: the request is executed by RestTemplate on the subscribing (servlet) thread.
+ * The RestTemplate must not treat error statuses as errors, see {@link #PASSTHROUGH_ERRORS}.
+ * Bodies of exchanged answers are read into memory, up to maxBodySize bytes if it is not negative: a larger one
+ * fails with DataBufferLimitException like in the WebClient transport. Stream passes any size through.
+ */
+public class RestTemplateTransport implements ServerTransport {
+    /**
+     * Error handler that lets 4xx and 5xx responses through as regular responses.
+     */
+    public static final ResponseErrorHandler PASSTHROUGH_ERRORS = new DefaultResponseErrorHandler() {
+        @Override
+        public boolean hasError(ClientHttpResponse response) {
+            return false;
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final RestTemplate rest;
+
+    private final int maxBodySize;
+
+    public RestTemplateTransport(RestTemplate rest, int maxBodySize) {
+        this.rest = rest;
+        this.maxBodySize = maxBodySize;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                 @Nullable Map<String, Object> parameters, HttpEntity<?> request) {
+        return Mono.fromCallable(() -> send(method, path, parameters, request));
+    }
+
+    @Override
+    public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                       HttpServletResponse response) throws IOException {
+        URI uri = rest.getUriTemplateHandler().expand(path, parameters != null ? parameters : Map.of());
+        ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+        request.getHeaders().addAll(headers);
+        try (ClientHttpResponse shareitServerResponse = request.execute()) {
+            response.setStatus(shareitServerResponse.getRawStatusCode());
+            ProxyHeaders.copyTo(shareitServerResponse.getHeaders(), response);
+            copy(shareitServerResponse.getBody(), response.getOutputStream());
+        }
+    }
+
+    private ResponseEntity<Object> send(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                        HttpEntity<?> request) {
+        RequestCallback callback = rest.httpEntityCallback(request, byte[].class);
+        ResponseExtractor<ResponseEntity<Object>> extractor = this::read;
+        return parameters != null
+                ? rest.execute(path, method, callback, extractor, parameters)
+                : rest.execute(path, method, callback, extractor);
+    }
+
+    private ResponseEntity<Object> read(ClientHttpResponse shareitServerResponse) throws IOException {
+        long contentLength = shareitServerResponse.getHeaders().getContentLength();
+        if (maxBodySize >= 0 && contentLength > maxBodySize) {
+            throw tooLarge();
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(
+                contentLength >= 0 && contentLength <= Integer.MAX_VALUE ? (int) contentLength : BUFFER_SIZE);
+        InputStream in = shareitServerResponse.getBody();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (maxBodySize >= 0 && body.size() + read > maxBodySize) {
+                throw tooLarge();
+            }
+            body.write(buffer, 0, read);
+        }
+        ResponseEntity.BodyBuilder gatewayResponse = ResponseEntity.status(shareitServerResponse.getRawStatusCode())
+                .headers(ProxyHeaders.of(shareitServerResponse.getHeaders()));
+        return body.size() > 0 ? gatewayResponse.body(body.toByteArray()) : gatewayResponse.build();
+    }
+
+    private DataBufferLimitException tooLarge() {
+        return new DataBufferLimitException("Exceeded limit on max bytes to buffer : " + maxBodySize);
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The shareit-server instances listed in shareit-server.url and the choice between them: every request goes to
+ * the one of two random available instances with fewer requests in flight. The instances share their state through
+ * the database, so any of them may serve any request. An instance is unavailable while its health endpoint fails,
+ * checked every shareit-server.balancer.health-check-interval, and for ejection-time after ejection-errors
+ * consecutive transport errors, timeouts or 502, 503 and 504 answers; other 5xx answers are errors of the request,
+ * not of the instance. When no instance is available all of them are used.
+ * With a single instance there is no choice, health check or ejection.
+ * Published as shareit.server.endpoint.outstanding, .available and .ejections with the tag endpoint;
+ * the health checks share the pooled client of the blocking transport and are not timed as http.client.requests.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(BalancerProperties.class)
+public class ServerEndpoints implements MeterBinder {
+    private static final String METRIC = "shareit.server.endpoint";
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+
+    private final BalancerProperties properties;
+
+    private final RestTemplate healthCheck;
+
+    @Autowired
+    public ServerEndpoints(@Value("${shareit-server.url}") List<String> urls, BalancerProperties properties,
+                           ObjectProvider<CloseableHttpClient> httpClient) {
+        this(urls, properties, new RestTemplate(healthCheckRequestFactory(httpClient.getIfAvailable(),
+                (int) properties.getHealthCheckTimeout().toMillis())));
+    }
+
+    ServerEndpoints(List<String> urls, BalancerProperties properties, RestTemplate healthCheck) {
+        for (String url : urls) {
+            endpoints.add(new Endpoint(endpoints.size(), url.trim()));
+        }
+        this.properties = properties;
+        this.healthCheck = healthCheck;
+    }
+
+    /**
+     * Creates a transport that sends every request to the transport of the chosen instance.
+     *
+     * @param transports creates the transport to the instance with the given URL
+     */
+    public ServerTransport balance(Function<String, ServerTransport> transports) {
+        if (endpoints.size() == 1) {
+            return transports.apply(endpoints.get(0).url);
+        }
+        return new BalancedTransport(endpoints.stream()
+                .map(endpoint -> transports.apply(endpoint.url))
+                .collect(Collectors.toList()));
+    }
+
+    @Scheduled(fixedDelayString = "${shareit-server.balancer.health-check-interval:PT5S}")
+    public void checkHealth() {
+        if (endpoints.size() == 1) {
+            return;
+        }
+        for (Endpoint endpoint : endpoints) {
+            boolean healthy;
+            try {
+                healthy = healthCheck.getForEntity(endpoint.url + properties.getHealthPath(), String.class)
+                        .getStatusCode().is2xxSuccessful();
+            } catch (RestClientException e) {
+                healthy = false;
+            }
+            if (healthy && !endpoint.healthy) {
+                log.info("shareit-server {} is healthy again", endpoint.url);
+            } else if (!healthy && endpoint.healthy) {
+                log.warn("shareit-server {} is unhealthy", endpoint.url);
+            }
+            endpoint.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Endpoint endpoint : endpoints) {
+            Gauge.builder(METRIC + ".outstanding", endpoint.outstanding, AtomicInteger::get)
+                    .description("requests in flight to the shareit-server instance")
+                    .tag("endpoint", endpoint.url)
+                    .register(registry);
+            Gauge.builder(METRIC + ".available", endpoint, e -> e.isAvailable(System.nanoTime()) ? 1 : 0)
+                    .description("1 while the shareit-server instance is healthy and not ejected")
+                    .tag("endpoint", endpoint.url)
+                    .register(registry);
+            FunctionCounter.builder(METRIC + ".ejections", endpoint.ejections, AtomicLong::get)
+                    .description("times the shareit-server instance was ejected after consecutive errors")
+                    .tag("endpoint", endpoint.url)
+                    .register(registry);
+        }
+    }
+
+    /**
+     * The pooled client of the blocking transport with the health check timeouts; the reactive transport has no
+     * blocking client, there a plain connection is opened for every check.
+     */
+    private static ClientHttpRequestFactory healthCheckRequestFactory(@Nullable CloseableHttpClient httpClient,
+                                                                      int timeout) {
+        if (httpClient != null) {
+            HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(
+                    httpClient);
+            requestFactory.setConnectTimeout(timeout);
+            requestFactory.setReadTimeout(timeout);
+            return requestFactory;
+        }
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        return requestFactory;
+    }
+
+    /**
+     * Whether the answer means that the instance rather than the request failed.
+     */
+    private static boolean isInstanceError(int status) {
+        return status == HttpStatus.BAD_GATEWAY.value()
+                || status == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status == HttpStatus.GATEWAY_TIMEOUT.value();
+    }
+
+    private Endpoint choose() {
+        long now = System.nanoTime();
+        List<Endpoint> available = endpoints.stream()
+                .filter(endpoint -> endpoint.isAvailable(now))
+                .collect(Collectors.toList());
+        List<Endpoint> candidates = available.isEmpty() ? endpoints : available;
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint one = candidates.get(first);
+        Endpoint other = candidates.get(second);
+        return one.outstanding.get() <= other.outstanding.get() ? one : other;
+    }
+
+    private class Endpoint {
+        private final int index;
+
+        private final String url;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private final AtomicInteger consecutiveErrors = new AtomicInteger();
+
+        private final AtomicLong ejections = new AtomicLong();
+
+        private volatile boolean healthy = true;
+
+        private volatile long ejectedUntil = System.nanoTime();
+
+        Endpoint(int index, String url) {
+            this.index = index;
+            this.url = url;
+        }
+
+        boolean isAvailable(long now) {
+            return healthy && now - ejectedUntil >= 0;
+        }
+
+        void record(boolean success) {
+            if (success) {
+                consecutiveErrors.set(0);
+            } else if (consecutiveErrors.incrementAndGet() >= properties.getEjectionErrors()) {
+                consecutiveErrors.set(0);
+                ejectedUntil = System.nanoTime() + properties.getEjectionTime().toNanos();
+                ejections.incrementAndGet();
+                log.warn("shareit-server {} ejected for {} after {} consecutive errors", url,
+                        properties.getEjectionTime(), properties.getEjectionErrors());
+            }
+        }
+    }
+
+    private class BalancedTransport implements ServerTransport {
+        private final List<ServerTransport> transports;
+
+        BalancedTransport(List<ServerTransport> transports) {
+            this.transports = transports;
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     HttpEntity<?> request) {
+            return Mono.defer(() -> {
+                Endpoint endpoint = choose();
+                endpoint.outstanding.incrementAndGet();
+                return transports.get(endpoint.index).exchange(method, path, parameters, request)
+                        .doOnNext(response -> endpoint.record(!isInstanceError(response.getStatusCodeValue())))
+                        .doOnError(error -> endpoint.record(false))
+                        .doFinally(signal -> endpoint.outstanding.decrementAndGet());
+            });
+        }
+
+        @Override
+        public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                           HttpServletResponse response) throws IOException {
+            Endpoint endpoint = choose();
+            endpoint.outstanding.incrementAndGet();
+            try {
+                transports.get(endpoint.index).stream(path, parameters, headers, response);
+                endpoint.record(!isInstanceError(response.getStatus()));
+            } catch (IOException | RuntimeException e) {
+                endpoint.record(false);
+                throw e;
+            } finally {
+                endpoint.outstanding.decrementAndGet();
+            }
+        }
+    }
+}
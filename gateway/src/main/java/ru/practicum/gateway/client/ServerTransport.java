@@ -0,0 +1,31 @@
+package ru.practicum.gateway.client;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Sends a request to shareit-server and turns its answer into the gateway response.
+ * The response is passed through: status, end-to-end headers and the body as raw bytes, which are written
+ * to the client without being parsed, for successful and error responses alike.
+ * The request is sent when the returned Mono is subscribed.
+ */
+public interface ServerTransport {
+    Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                          HttpEntity<?> request);
+
+    /**
+     * Sends a GET request and copies the answer to the gateway response while it is read, flushing every chunk,
+     * so the body is never held in memory. Status and end-to-end headers are passed through as in exchange.
+     * Blocks the calling thread until the whole body is copied.
+     */
+    void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                HttpServletResponse response) throws IOException;
+}
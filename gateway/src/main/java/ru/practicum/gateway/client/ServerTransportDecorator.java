@@ -0,0 +1,9 @@
+package ru.practicum.gateway.client;
+
+/**
+ * Adds behaviour to the transports of all clients of shareit-server. Decorators are applied in their order:
+ * the one with the lowest order wraps the transport itself, the one with the highest order is called first.
+ */
+public interface ServerTransportDecorator {
+    ServerTransport wrap(String apiPrefix, ServerTransport transport);
+}
@@ -0,0 +1,9 @@
+package ru.practicum.gateway.client;
+
+/**
+ * Creates transports to the API of shareit-server under the given path prefix.
+ * The implementation is selected with shareit-server.transport (blocking or reactive).
+ */
+public interface ServerTransportFactory {
+    ServerTransport create(String apiPrefix);
+}
@@ -0,0 +1,108 @@
+package ru.practicum.gateway.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Bulkhead and circuit breaker per client of shareit-server, named after its API prefix (bookings, items, users,
+ * requests). The bulkhead bounds the calls of a client in flight, so a slow route cannot take all connections
+ * to shareit-server and threads of the gateway. The circuit breaker counts 5xx answers, errors and slow calls and rejects calls while open.
+ * Rejected calls fail with BulkheadFullException or CallNotPermittedException and are answered with 503.
+ * Both are configured under resilience4j.bulkhead and resilience4j.circuitbreaker, their state is published
+ * by the actuator endpoints bulkheads and circuitbreakers and as resilience4j.* metrics.
+ */
+@Component
+@Order(200)
+@ConditionalOnProperty(name = "shareit-server.resilience.enabled", havingValue = "true", matchIfMissing = true)
+public class UpstreamGuard implements ServerTransportDecorator {
+    private final BulkheadRegistry bulkheads;
+
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    public UpstreamGuard(BulkheadRegistry bulkheads, CircuitBreakerRegistry circuitBreakers) {
+        this.bulkheads = bulkheads;
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    @Override
+    public ServerTransport wrap(String apiPrefix, ServerTransport transport) {
+        String name = apiPrefix.substring(1);
+        return new GuardedTransport(bulkheads.bulkhead(name), circuitBreakers.circuitBreaker(name), transport);
+    }
+
+    /**
+     * Carries a 5xx answer through the circuit breaker as an error, so that it is recorded as a failure.
+     */
+    private static class ServerErrorResponse extends RuntimeException {
+        private final transient ResponseEntity<Object> response;
+
+        ServerErrorResponse(ResponseEntity<Object> response) {
+            super(response.getStatusCode().toString(), null, false, false);
+            this.response = response;
+        }
+    }
+
+    private static class GuardedTransport implements ServerTransport {
+        private final Bulkhead bulkhead;
+
+        private final CircuitBreaker circuitBreaker;
+
+        private final ServerTransport transport;
+
+        GuardedTransport(Bulkhead bulkhead, CircuitBreaker circuitBreaker, ServerTransport transport) {
+            this.bulkhead = bulkhead;
+            this.circuitBreaker = circuitBreaker;
+            this.transport = transport;
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     HttpEntity<?> request) {
+            return Mono.defer(() -> transport.exchange(method, path, parameters, request))
+                    .flatMap(response -> response.getStatusCode().is5xxServerError()
+                            ? Mono.<ResponseEntity<Object>>error(new ServerErrorResponse(response))
+                            : Mono.just(response))
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .onErrorResume(ServerErrorResponse.class, error -> Mono.just(error.response));
+        }
+
+        /**
+         * Streams are bounded by the bulkhead and rejected while the circuit is open; their outcome is not
+         * recorded by the circuit breaker, because the duration of an export says nothing about shareit-server.
+         */
+        @Override
+        public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                           HttpServletResponse response) throws IOException {
+            circuitBreaker.acquirePermission();
+            circuitBreaker.releasePermission();
+            if (!bulkhead.tryAcquirePermission()) {
+                throw BulkheadFullException.createBulkheadFullException(bulkhead);
+            }
+            try {
+                transport.stream(path, parameters, headers, response);
+            } finally {
+                bulkhead.onComplete();
+            }
+        }
+    }
+}
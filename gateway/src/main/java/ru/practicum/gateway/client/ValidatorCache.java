@@ -0,0 +1,133 @@
+package ru.practicum.gateway.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Keeps the last 200 OK answer with an ETag to every GET request to shareit-server, per user and URL, and
+ * revalidates it instead of fetching the resource again. The request is sent with If-None-Match, and a 304 answer
+ * is replaced with the kept body under the kept headers, updated by those of the 304 and kept from then on.
+ * Requests that carry conditional headers of their own are passed through unchanged.
+ * The cache is bounded by the size of the kept bodies; statistics are published as cache.* metrics
+ * with the tag cache=shareit-server-validators.
+ */
+@Component
+@Order(100)
+@ConditionalOnProperty(name = "shareit-server.validator-cache.enabled", havingValue = "true")
+public class ValidatorCache implements ServerTransportDecorator, MeterBinder {
+    private static final String NAME = "shareit-server-validators";
+
+    /**
+     * Headers that describe the kept body and are not taken from a 304 answer.
+     */
+    private static final Set<String> KEPT_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        KEPT_HEADERS.addAll(Set.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_TYPE,
+                HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private final Cache<String, ResponseEntity<Object>> cache;
+
+    public ValidatorCache(@Value("${shareit-server.validator-cache.maximum-weight:64MB}") DataSize maximumWeight) {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher((String key, ResponseEntity<Object> response) -> key.length()
+                        + ((byte[]) response.getBody()).length)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public ServerTransport wrap(String apiPrefix, ServerTransport transport) {
+        return new ValidatingTransport(apiPrefix, transport);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    private class ValidatingTransport implements ServerTransport {
+        private final String apiPrefix;
+
+        private final ServerTransport transport;
+
+        ValidatingTransport(String apiPrefix, ServerTransport transport) {
+            this.apiPrefix = apiPrefix;
+            this.transport = transport;
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                     @Nullable Map<String, Object> parameters,
+                                                     HttpEntity<?> request) {
+            if (method != HttpMethod.GET) {
+                return transport.exchange(method, path, parameters, request);
+            }
+            String key = RequestKey.of(apiPrefix, path, parameters, request.getHeaders());
+            ResponseEntity<Object> kept = request.getHeaders().getIfNoneMatch().isEmpty()
+                    ? cache.getIfPresent(key)
+                    : null;
+            HttpEntity<?> sent = request;
+            if (kept != null) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.addAll(request.getHeaders());
+                headers.setIfNoneMatch(kept.getHeaders().getETag());
+                sent = new HttpEntity<>(request.getBody(), headers);
+            }
+            return transport.exchange(method, path, parameters, sent).map(response -> {
+                if (kept != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                    ResponseEntity<Object> refreshed = refresh(kept, response.getHeaders());
+                    cache.put(key, refreshed);
+                    return refreshed;
+                }
+                if (response.getStatusCode() == HttpStatus.OK && response.getHeaders().getETag() != null
+                        && response.getBody() != null) {
+                    cache.put(key, response);
+                } else if (response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+                    cache.invalidate(key);
+                }
+                return response;
+            });
+        }
+
+        private ResponseEntity<Object> refresh(ResponseEntity<Object> kept, HttpHeaders notModified) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(kept.getHeaders());
+            notModified.forEach((name, values) -> {
+                if (!KEPT_HEADERS.contains(name)) {
+                    headers.put(name, values);
+                }
+            });
+            return new ResponseEntity<>(kept.getBody(), headers, kept.getStatusCode());
+        }
+
+        @Override
+        public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                           HttpServletResponse response) throws IOException {
+            transport.stream(path, parameters, headers, response);
+        }
+    }
+}
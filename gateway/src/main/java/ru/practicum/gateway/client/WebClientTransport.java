@@ -0,0 +1,86 @@
+package ru.practicum.gateway.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Non-blocking transport: the request is executed by WebClient on the Reactor Netty event loop,
+ * so no servlet thread waits for shareit-server.
+ * Bodies of exchanged answers are aggregated up to the maxInMemorySize of the WebClient codecs if it is set,
+ * a larger one fails with DataBufferLimitException.
+ */
+public class WebClientTransport implements ServerTransport {
+    private static final int PREFETCH = 4;
+
+    private final WebClient webClient;
+
+    public WebClientTransport(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path,
+                                                 @Nullable Map<String, Object> parameters, HttpEntity<?> request) {
+        WebClient.RequestBodySpec spec = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(request.getHeaders()));
+        WebClient.RequestHeadersSpec<?> requestSpec = request.hasBody() ? spec.bodyValue(request.getBody()) : spec;
+        return requestSpec.exchangeToMono(WebClientTransport::toGatewayResponse);
+    }
+
+    @Override
+    public void stream(String path, @Nullable Map<String, Object> parameters, HttpHeaders headers,
+                       HttpServletResponse response) throws IOException {
+        ResponseEntity<Flux<DataBuffer>> shareitServerResponse = webClient.get()
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(requestHeaders -> requestHeaders.addAll(headers))
+                .retrieve()
+                .onStatus(HttpStatus::isError, errorResponse -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .block();
+        response.setStatus(shareitServerResponse.getStatusCodeValue());
+        ProxyHeaders.copyTo(shareitServerResponse.getHeaders(), response);
+        OutputStream out = response.getOutputStream();
+        try (Stream<DataBuffer> buffers = shareitServerResponse.getBody()
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .toStream(PREFETCH)) {
+            Iterator<DataBuffer> iterator = buffers.iterator();
+            while (iterator.hasNext()) {
+                DataBuffer buffer = iterator.next();
+                try {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    out.write(bytes);
+                    out.flush();
+                } finally {
+                    DataBufferUtils.release(buffer);
+                }
+            }
+        }
+    }
+
+    private static Mono<ResponseEntity<Object>> toGatewayResponse(ClientResponse response) {
+        ResponseEntity.BodyBuilder gatewayResponse = ResponseEntity.status(response.rawStatusCode())
+                .headers(ProxyHeaders.of(response.headers().asHttpHeaders()));
+        return response.bodyToMono(byte[].class)
+                .<ResponseEntity<Object>>map(gatewayResponse::body)
+                .defaultIfEmpty(gatewayResponse.build());
+    }
+}
@@ -1,6 +1,9 @@
 package ru.practicum.gateway.exception;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBufferLimitException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -51,6 +54,22 @@ public class ErrorHandler {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler({BulkheadFullException.class, CallNotPermittedException.class})
+    public ResponseEntity<Map<String, String>> serverUnavailable(RuntimeException ex) {
+        log.warn("serverUnavailable {}", ex.getMessage());
+        Map<String, String> map = new HashMap<>();
+        map.put("error", ex.getMessage());
+        return new ResponseEntity<>(map, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Map<String, String>> serverAnswerTooLarge(DataBufferLimitException ex) {
+        log.warn("serverAnswerTooLarge {}", ex.getMessage());
+        Map<String, String> map = new HashMap<>();
+        map.put("error", ex.getMessage());
+        return new ResponseEntity<>(map, HttpStatus.BAD_GATEWAY);
+    }
+
     @ExceptionHandler
     public ResponseEntity<Map<String, String>> throwable(Throwable ex) {
         log.error("throwable {}", ex.toString());
@@ -1,60 +1,65 @@
 package ru.practicum.gateway.item;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.ServerTransportFactory;
 import ru.practicum.gateway.item.dto.CommentRequestDto;
 import ru.practicum.gateway.item.dto.ItemRequestDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
-    @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(ServerTransportFactory transports) {
+        super(transports.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> getItems(long userId) {
+    public Mono<ResponseEntity<Object>> getItems(long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getItem(Long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> getItem(Long itemId, long userId) {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> createItem(long userId, ItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> getAvailability(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Map<String, Object> parameters = Map.of(
+                "start", start,
+                "end", end
+        );
+        return get("/" + itemId + "/availability?start={start}&end={end}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<Object>> createItem(long userId, ItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> updateItem(ItemRequestDto requestDto, Long itemId, long userId) {
+    public Mono<ResponseEntity<Object>> createItems(long userId, List<ItemRequestDto> requestDtos) {
+        return post("/batch", userId, requestDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> updateItem(ItemRequestDto requestDto, Long itemId, long userId) {
         return patch("/" + itemId, userId, requestDto);
     }
 
-    public ResponseEntity<Object> deleteItem(Long itemId) {
+    public Mono<ResponseEntity<Object>> deleteItem(Long itemId) {
         return delete("/" + itemId);
     }
 
-    public ResponseEntity<Object> searchItem(long userId, String text) {
+    public Mono<ResponseEntity<Object>> searchItem(long userId, String text) {
         Map<String, Object> parameters = Map.of(
                 "text", text
         );
         return get("/search?text={text}", userId, parameters);
     }
 
-    public ResponseEntity<Object> createComment(Long itemId, long userId, CommentRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createComment(Long itemId, long userId, CommentRequestDto requestDto) {
         return post("/" + itemId + "/comment", userId, requestDto);
     }
 }
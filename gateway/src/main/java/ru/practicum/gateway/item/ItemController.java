@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,11 +15,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
+import ru.practicum.gateway.exception.BookingException;
 import ru.practicum.gateway.item.dto.CommentRequestDto;
 import ru.practicum.gateway.item.dto.ItemRequestDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 
 @Controller
 @RequestMapping("/items")
@@ -26,56 +33,79 @@ import java.util.Collections;
 @RequiredArgsConstructor
 @Validated
 public class ItemController {
+    private static final int BATCH_LIMIT = 1000;
+
     private final ItemClient itemClient;
 
     @GetMapping
-    public ResponseEntity<Object> getItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Get All Items {}", userId);
+    public Mono<ResponseEntity<Object>> getItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("Get All Items {}", userId);
         return itemClient.getItems(userId);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getItem(@PathVariable Long id,
-                                          @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Get Item with Id: {}", id);
+    public Mono<ResponseEntity<Object>> getItem(@PathVariable Long id,
+                                                @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("Get Item with Id: {}", id);
         return itemClient.getItem(id, userId);
     }
 
+    @GetMapping("/{id}/availability")
+    public Mono<ResponseEntity<Object>> getAvailability(@PathVariable Long id,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime start,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        LocalDateTime end) {
+        log.debug("Get availability of Item with Id: {} between {} and {}", id, start, end);
+        if (!start.isBefore(end)) {
+            throw new BookingException("The start of the period must be earlier than its end");
+        }
+        return itemClient.getAvailability(id, start, end);
+    }
+
     @PostMapping
-    public ResponseEntity<Object> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @RequestBody @Valid ItemRequestDto requestDto) {
-        log.info("Create Item");
+    public Mono<ResponseEntity<Object>> createItem(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestBody @Valid ItemRequestDto requestDto) {
+        log.debug("Create Item");
         return itemClient.createItem(userId, requestDto);
     }
 
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<Object>> createItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @RequestBody @NotEmpty @Size(max = BATCH_LIMIT)
+                                                    List<@Valid ItemRequestDto> requestDtos) {
+        log.debug("Create {} Items", requestDtos.size());
+        return itemClient.createItems(userId, requestDtos);
+    }
+
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateItem(@RequestBody ItemRequestDto requestDto,
-                                             @PathVariable Long id,
-                                             @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Update Item with Id: {}", id);
+    public Mono<ResponseEntity<Object>> updateItem(@RequestBody ItemRequestDto requestDto,
+                                                   @PathVariable Long id,
+                                                   @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("Update Item with Id: {}", id);
         return itemClient.updateItem(requestDto, id, userId);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteItem(@PathVariable Long id) {
-        log.info("Delete Item with Id: {}", id);
+    public Mono<ResponseEntity<Object>> deleteItem(@PathVariable Long id) {
+        log.debug("Delete Item with Id: {}", id);
         return itemClient.deleteItem(id);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItem(@RequestParam String text,
-                                             @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Search by Name: {}", text);
+    public Mono<ResponseEntity<Object>> searchItem(@RequestParam String text,
+                                                   @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("Search by Name: {}", text);
         if (text.isBlank()) {
-            return ResponseEntity.ok(Collections.emptyList());
+            return Mono.just(ResponseEntity.ok(Collections.emptyList()));
         }
         return itemClient.searchItem(userId, text);
     }
 
     @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @Valid @RequestBody CommentRequestDto requestDto) {
-        log.info("Adding a comment to Item with Id: {}", itemId);
+    public Mono<ResponseEntity<Object>> createComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @Valid @RequestBody CommentRequestDto requestDto) {
+        log.debug("Adding a comment to Item with Id: {}", itemId);
         return itemClient.createComment(itemId, userId, requestDto);
     }
 }
@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.request.dto.ItemRequestRequestDto;
 
 import javax.validation.Valid;
@@ -27,30 +28,30 @@ public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
     @PostMapping
-    public ResponseEntity<Object> createItemRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                    @Valid @RequestBody ItemRequestRequestDto requestDto) {
-        log.info("Создание запроса {}", userId);
+    public Mono<ResponseEntity<Object>> createItemRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                          @Valid @RequestBody ItemRequestRequestDto requestDto) {
+        log.debug("Создание запроса {}", userId);
         return itemRequestClient.createItemRequest(userId, requestDto);
     }
 
     @GetMapping
-    public ResponseEntity<Object> getItemRequestsByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Getting all User requests by Id: {}", userId);
+    public Mono<ResponseEntity<Object>> getItemRequestsByUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("Getting all User requests by Id: {}", userId);
         return itemRequestClient.getItemRequestsByUser(userId);
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllItemRequests(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                     @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                     @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        log.info("Getting all requests without a User {}", userId);
+    public Mono<ResponseEntity<Object>> getAllItemRequests(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                           @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                           @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+        log.debug("Getting all requests without a User {}", userId);
         return itemRequestClient.getAll(userId, from, size);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getItemRequest(@PathVariable Long requestId,
-                                                 @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Getting information on request {}", requestId);
+    public Mono<ResponseEntity<Object>> getItemRequest(@PathVariable Long requestId,
+                                                       @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.debug("Getting information on request {}", requestId);
         return itemRequestClient.getItemRequest(requestId, userId);
     }
 }
@@ -1,45 +1,43 @@
 package ru.practicum.gateway.user;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.client.BaseClient;
+import ru.practicum.gateway.client.ServerTransportFactory;
 import ru.practicum.gateway.user.dto.UserRequestDto;
 
+import java.util.List;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
-    @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public UserClient(ServerTransportFactory transports) {
+        super(transports.create(API_PREFIX));
     }
 
-    public ResponseEntity<Object> getUsers() {
+    public Mono<ResponseEntity<Object>> getUsers() {
         return get("");
     }
 
-    public ResponseEntity<Object> getUser(Long userId) {
+    public Mono<ResponseEntity<Object>> getUser(Long userId) {
         return get("/" + userId);
     }
 
-    public ResponseEntity<Object> createUser(UserRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createUser(UserRequestDto requestDto) {
         return post("", requestDto);
     }
 
-    public ResponseEntity<Object> updateUser(Long userId, UserRequestDto requestDto) {
+    public Mono<ResponseEntity<Object>> createUsers(List<UserRequestDto> requestDtos) {
+        return post("/batch", requestDtos);
+    }
+
+    public Mono<ResponseEntity<Object>> updateUser(Long userId, UserRequestDto requestDto) {
         return patch("/" + userId, requestDto);
     }
 
-    public ResponseEntity<Object> deleteUser(Long userId) {
+    public Mono<ResponseEntity<Object>> deleteUser(Long userId) {
         return delete("/" + userId);
     }
 }
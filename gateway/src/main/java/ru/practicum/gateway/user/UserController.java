@@ -12,45 +12,63 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Mono;
 import ru.practicum.gateway.user.dto.UserRequestDto;
 import ru.practicum.gateway.util.Create;
 import ru.practicum.gateway.util.Update;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
 @Controller
 @RequestMapping("/users")
 @Slf4j
 @RequiredArgsConstructor
+@Validated
 public class UserController {
+    private static final int BATCH_LIMIT = 1000;
+
     private final UserClient userClient;
 
     @GetMapping
-    public ResponseEntity<Object> getUsers() {
-        log.info("Getting all users");
+    public Mono<ResponseEntity<Object>> getUsers() {
+        log.debug("Getting all users");
         return userClient.getUsers();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Object> getUser(@PathVariable Long id) {
-        log.info("Getting a User with Id: {}", id);
+    public Mono<ResponseEntity<Object>> getUser(@PathVariable Long id) {
+        log.debug("Getting a User with Id: {}", id);
         return userClient.getUser(id);
     }
 
     @PostMapping
-    public ResponseEntity<Object> createUser(@RequestBody @Validated(Create.class) UserRequestDto requestDto) {
-        log.info("Adding a User: {}", requestDto);
+    public Mono<ResponseEntity<Object>> createUser(@RequestBody @Validated(Create.class) UserRequestDto requestDto) {
+        log.debug("Adding a User: {}", requestDto);
         return userClient.createUser(requestDto);
     }
 
+    @PostMapping("/batch")
+    @Validated(Create.class)
+    public Mono<ResponseEntity<Object>> createUsers(@NotEmpty(groups = Create.class)
+                                                    @Size(max = BATCH_LIMIT, groups = Create.class)
+                                                    @RequestBody List<@Valid UserRequestDto> requestDtos) {
+        log.debug("Adding {} Users", requestDtos.size());
+        return userClient.createUsers(requestDtos);
+    }
+
     @PatchMapping("/{id}")
-    public ResponseEntity<Object> updateUser(@Validated(Update.class) @RequestBody UserRequestDto requestDto,
-                                             @PathVariable Long id) {
-        log.info("Update a User: {}, {}", id, requestDto);
+    public Mono<ResponseEntity<Object>> updateUser(@Validated(Update.class) @RequestBody UserRequestDto requestDto,
+                                                   @PathVariable Long id) {
+        log.debug("Update a User: {}, {}", id, requestDto);
         return userClient.updateUser(id, requestDto);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Object> deleteUser(@PathVariable Long id) {
-        log.info("Delete a User: {}", id);
+    public Mono<ResponseEntity<Object>> deleteUser(@PathVariable Long id) {
+        log.debug("Delete a User: {}", id);
         return userClient.deleteUser(id);
     }
 }
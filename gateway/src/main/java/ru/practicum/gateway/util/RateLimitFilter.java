@@ -0,0 +1,168 @@
+package ru.practicum.gateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Throttles every user of the gateway with a token bucket per route, before the request reaches a controller
+ * and shareit-server. Users are told apart by X-Sharer-User-Id, requests without it by the client address.
+ * A throttled request is answered with 429 and Retry-After and counted as shareit.gateway.throttled
+ * with the tag route. The limits are configured under shareit.rate-limit.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private static final String METRIC = "shareit.gateway.throttled";
+
+    private static final String BODY = "{\"error\":\"Too many requests\"}";
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<Limit> limits = new ArrayList<>();
+
+    private final Cache<String, TokenBucket> buckets;
+
+    /**
+     * Current time in nanoseconds.
+     */
+    private final LongSupplier clock;
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry registry) {
+        this(properties, registry, System::nanoTime);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, MeterRegistry registry, LongSupplier clock) {
+        this.clock = clock;
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            limits.add(new Limit(route.getMethod(), route.getPattern(), route.getCapacity(),
+                    route.getRefillPerSecond(), registry));
+        }
+        limits.add(new Limit(null, null, properties.getCapacity(), properties.getRefillPerSecond(), registry));
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Limit limit = limits.stream()
+                .filter(candidate -> candidate.matches(request))
+                .findFirst()
+                .orElseThrow();
+        String user = request.getHeader(USER_HEADER);
+        String client = user != null ? user : request.getRemoteAddr();
+        long now = clock.getAsLong();
+        long wait = buckets.get(limit.name + " " + client, key -> new TokenBucket(now)).take(limit, now);
+        if (wait > 0) {
+            log.debug("Throttled {} {} of {} for {}ms", request.getMethod(), request.getRequestURI(), client,
+                    TimeUnit.NANOSECONDS.toMillis(wait));
+            limit.throttled.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            long retryAfter = TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(BODY);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static final class Limit {
+        @Nullable
+        private final String method;
+
+        @Nullable
+        private final String pattern;
+
+        private final String name;
+
+        /**
+         * Nanoseconds in which one token is added.
+         */
+        private final long interval;
+
+        /**
+         * Nanoseconds in which an empty bucket is filled.
+         */
+        private final long burst;
+
+        private final Counter throttled;
+
+        Limit(@Nullable String method, @Nullable String pattern, int capacity, double refillPerSecond,
+              MeterRegistry registry) {
+            this.method = method;
+            this.pattern = pattern;
+            this.name = pattern == null ? "default" : (method == null ? "" : method + " ") + pattern;
+            this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burst = interval * capacity;
+            this.throttled = Counter.builder(METRIC)
+                    .description("requests answered with 429 Too Many Requests")
+                    .tag("route", name)
+                    .register(registry);
+        }
+
+        boolean matches(HttpServletRequest request) {
+            return (method == null || method.equalsIgnoreCase(request.getMethod()))
+                    && (pattern == null || PATH_MATCHER.match(pattern, request.getRequestURI()));
+        }
+    }
+
+    /**
+     * Token bucket kept as the moment it is full again, which takes a token with one compare-and-set.
+     */
+    private static final class TokenBucket {
+        private final AtomicLong fullAt;
+
+        TokenBucket(long now) {
+            fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * Takes a token and returns 0, or returns the nanoseconds until a token is available.
+         */
+        long take(Limit limit, long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + limit.interval;
+                long overdraft = next - now - limit.burst;
+                if (overdraft > 0) {
+                    return overdraft;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.gateway.util;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Token buckets of the users of the gateway: the default limit and the limits of single routes.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+    /**
+     * Requests a user can send at once before being throttled.
+     */
+    private int capacity = 50;
+
+    /**
+     * Requests per second a user can send over time.
+     */
+    private double refillPerSecond = 20;
+
+    /**
+     * Maximum number of buckets kept, one per user and route.
+     */
+    private long maxBuckets = 100_000;
+
+    /**
+     * Buckets unused for this time are dropped; it should be longer than refilling an empty bucket.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Routes with their own limit, the first one matching the request is used.
+     */
+    private List<Route> routes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        /**
+         * HTTP method of the route, all methods when not set.
+         */
+        private String method;
+
+        /**
+         * Path pattern of the route, e.g. /items/search or /bookings/**.
+         */
+        private String pattern;
+
+        private int capacity;
+
+        private double refillPerSecond;
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+    private static final int CALLERS = 8;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    private ServerTransport upstream;
+    private ServerTransport transport;
+    private Sinks.One<ResponseEntity<Object>> answer;
+
+    @BeforeEach
+    void beforeEach() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        coalescer.bindTo(registry);
+        upstream = Mockito.mock(ServerTransport.class);
+        transport = coalescer.wrap("/items", upstream);
+        answer = Sinks.one();
+        Mockito.when(upstream.exchange(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> answer.asMono().doOnSubscribe(subscription -> calls.incrementAndGet()));
+    }
+
+    @Test
+    void exchange_shouldSendConcurrentIdenticalGetsOnce() throws Exception {
+        List<CompletableFuture<ResponseEntity<Object>>> responses = getConcurrently();
+        ResponseEntity<Object> response = ResponseEntity.ok("items".getBytes());
+        answer.tryEmitValue(response);
+
+        for (CompletableFuture<ResponseEntity<Object>> each : responses) {
+            assertSame(response, each.get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, registry.get("shareit.server.coalesced").tag("result", "sent").functionCounter().count());
+        assertEquals(CALLERS - 1,
+                registry.get("shareit.server.coalesced").tag("result", "joined").functionCounter().count());
+    }
+
+    @Test
+    void exchange_shouldPassErrorToEveryCaller() throws Exception {
+        List<CompletableFuture<ResponseEntity<Object>>> responses = getConcurrently();
+        answer.tryEmitError(new IllegalStateException("shareit-server is down"));
+
+        for (CompletableFuture<ResponseEntity<Object>> each : responses) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> each.get(1, TimeUnit.SECONDS));
+            assertEquals("shareit-server is down", error.getCause().getMessage());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void exchange_shouldForgetCallOnceAnswered() {
+        answer.tryEmitValue(ResponseEntity.ok("items".getBytes()));
+
+        get().block();
+        assertEquals(0, registry.get("shareit.server.coalesced.active").gauge().value());
+        get().block();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void exchange_shouldNotCoalesceOtherUsersOrMethods() {
+        answer.tryEmitValue(ResponseEntity.ok("items".getBytes()));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "2");
+
+        get().subscribe();
+        transport.exchange(HttpMethod.GET, "/1", null, new HttpEntity<>(headers)).subscribe();
+        transport.exchange(HttpMethod.DELETE, "/1", null, new HttpEntity<>(user())).subscribe();
+
+        assertEquals(3, calls.get());
+    }
+
+    private List<CompletableFuture<ResponseEntity<Object>>> getConcurrently() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<CompletableFuture<ResponseEntity<Object>>> responses = new ArrayList<>();
+        try {
+            List<CompletableFuture<Void>> subscribed = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                CompletableFuture<ResponseEntity<Object>> response = new CompletableFuture<>();
+                responses.add(response);
+                subscribed.add(CompletableFuture.runAsync(() -> get().subscribe(response::complete,
+                        response::completeExceptionally), executor));
+            }
+            CompletableFuture.allOf(subscribed.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        return responses;
+    }
+
+    private Mono<ResponseEntity<Object>> get() {
+        return transport.exchange(HttpMethod.GET, "/1", null, new HttpEntity<>(user()));
+    }
+
+    private static HttpHeaders user() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "1");
+        return headers;
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestHedgerTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ResponseEntity<Object> slow = ResponseEntity.ok("slow".getBytes());
+    private final ResponseEntity<Object> fast = ResponseEntity.ok("fast".getBytes());
+    private ServerTransport upstream;
+    private ServerTransport transport;
+
+    @BeforeEach
+    void beforeEach() {
+        HedgingProperties properties = new HedgingProperties();
+        properties.setMinimumCalls(1);
+        properties.setBudgetRatio(0.5);
+        properties.setBudgetBurst(1);
+        Timer.builder("shareit.server.latency")
+                .tag("route", "/items/{id}")
+                .publishPercentiles(properties.getPercentile())
+                .register(registry)
+                .record(10, TimeUnit.MILLISECONDS);
+        upstream = Mockito.mock(ServerTransport.class);
+        transport = new RequestHedger(properties, registry).wrap("/items", upstream);
+    }
+
+    @Test
+    void exchange_shouldAnswerWithHedgeWhenFirstCallIsSlow() {
+        AtomicInteger calls = new AtomicInteger();
+        Mockito.when(upstream.exchange(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> calls.getAndIncrement() == 1
+                        ? Mono.delay(Duration.ofMillis(2000)).thenReturn(slow)
+                        : Mono.just(fast));
+        get().block();
+
+        long start = System.nanoTime();
+        ResponseEntity<Object> response = get().block(Duration.ofSeconds(5));
+
+        assertSame(fast, response);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(1, counter("won"));
+    }
+
+    @Test
+    void exchange_shouldTimeCancelledAndFailedCalls() {
+        AtomicInteger calls = new AtomicInteger();
+        Mockito.when(upstream.exchange(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    switch (calls.getAndIncrement()) {
+                        case 0:
+                            return Mono.error(new IllegalStateException("failed"));
+                        case 1:
+                            return Mono.delay(Duration.ofMillis(2000)).thenReturn(slow);
+                        default:
+                            return Mono.just(fast);
+                    }
+                });
+        Timer latency = registry.get("shareit.server.latency").tag("route", "/items/{id}").timer();
+
+        get().onErrorResume(IllegalStateException.class, e -> Mono.empty()).block();
+        assertEquals(2, latency.count());
+
+        assertSame(fast, get().block(Duration.ofSeconds(5)));
+        // the winner is timed after its answer was passed on, on the thread of the hedge
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (latency.count() < 4 && System.nanoTime() - deadline < 0) {
+            Thread.onSpinWait();
+        }
+        assertEquals(4, latency.count());
+    }
+
+    @Test
+    void exchange_shouldSpendBudgetAndRefuseHedgesWhenItIsEmpty() {
+        Mono<ResponseEntity<Object>> slowCall = Mono.delay(Duration.ofMillis(200)).thenReturn(slow);
+        Iterator<Mono<ResponseEntity<Object>>> calls = List.of(slowCall, slowCall, Mono.just(fast), slowCall,
+                slowCall, Mono.just(fast)).iterator();
+        Mockito.when(upstream.exchange(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> calls.next());
+
+        assertSame(slow, get().block());
+        assertEquals(1, counter("denied"));
+        assertSame(fast, get().block());
+        assertEquals(1, counter("sent"));
+        assertSame(slow, get().block());
+        assertEquals(2, counter("denied"));
+        assertSame(fast, get().block());
+        assertEquals(2, counter("sent"));
+        assertEquals(2, counter("won"));
+    }
+
+    @Test
+    void exchange_shouldNotHedgeOtherMethods() {
+        Mockito.when(upstream.exchange(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.delay(Duration.ofMillis(100)).thenReturn(slow));
+
+        assertSame(slow, transport.exchange(HttpMethod.PATCH, "/1", null, new HttpEntity<>(new HttpHeaders()))
+                .block());
+        Mockito.verify(upstream, Mockito.times(1)).exchange(Mockito.any(), Mockito.anyString(), Mockito.any(),
+                Mockito.any());
+    }
+
+    @Test
+    void exchange_shouldNotHedgeRoutesThatAreNotListed() {
+        Mockito.when(upstream.exchange(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenReturn(Mono.delay(Duration.ofMillis(100)).thenReturn(slow));
+
+        assertSame(slow, transport.exchange(HttpMethod.GET, "/search?text=drill", null,
+                new HttpEntity<>(new HttpHeaders())).block());
+        Mockito.verify(upstream, Mockito.times(1)).exchange(Mockito.any(), Mockito.anyString(), Mockito.any(),
+                Mockito.any());
+        assertEquals(0, counter("denied"));
+    }
+
+    private Mono<ResponseEntity<Object>> get() {
+        return transport.exchange(HttpMethod.GET, "/1", null, new HttpEntity<>(new HttpHeaders()));
+    }
+
+    private double counter(String result) {
+        return registry.get("shareit.server.hedged").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.gateway.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class ServerEndpointsTest {
+    private static final List<String> URLS = List.of("http://one", "http://two", "http://three");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, ServerTransport> upstreams = new LinkedHashMap<>();
+    private MockRestServiceServer health;
+    private ServerEndpoints endpoints;
+    private ServerTransport transport;
+
+    @BeforeEach
+    void beforeEach() {
+        BalancerProperties properties = new BalancerProperties();
+        properties.setEjectionErrors(2);
+        RestTemplate healthCheck = new RestTemplate();
+        health = MockRestServiceServer.bindTo(healthCheck).ignoreExpectOrder(true).build();
+        endpoints = new ServerEndpoints(URLS, properties, healthCheck);
+        endpoints.bindTo(registry);
+        for (String url : URLS) {
+            ServerTransport upstream = Mockito.mock(ServerTransport.class);
+            respond(upstream, HttpStatus.OK);
+            upstreams.put(url, upstream);
+        }
+        transport = endpoints.balance(upstreams::get);
+    }
+
+    @Test
+    void exchange_shouldSpreadRequestsOverInstances() {
+        for (int i = 0; i < 60; i++) {
+            get().block();
+        }
+
+        for (String url : URLS) {
+            Mockito.verify(upstreams.get(url), Mockito.atLeastOnce()).exchange(Mockito.any(), Mockito.anyString(),
+                    Mockito.any(), Mockito.any());
+        }
+    }
+
+    @Test
+    void exchange_shouldSkipUnhealthyInstance() {
+        health.expect(requestTo("http://one/actuator/health")).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        health.expect(requestTo("http://two/actuator/health")).andRespond(withSuccess());
+        health.expect(requestTo("http://three/actuator/health")).andRespond(withSuccess());
+
+        endpoints.checkHealth();
+        for (int i = 0; i < 20; i++) {
+            get().block();
+        }
+
+        health.verify();
+        verifyCalls("http://one", 0);
+        assertEquals(0, gauge("available", "http://one"));
+    }
+
+    @Test
+    void exchange_shouldEjectInstanceAfterUnavailableAnswers() {
+        respond(upstreams.get("http://one"), HttpStatus.SERVICE_UNAVAILABLE);
+
+        for (int i = 0; i < 60; i++) {
+            get().block();
+        }
+
+        assertEquals(1, ejections("http://one"));
+        assertEquals(0, gauge("available", "http://one"));
+    }
+
+    @Test
+    void exchange_shouldEjectInstanceAfterTransportErrors() {
+        Mockito.when(upstreams.get("http://one").exchange(Mockito.any(), Mockito.anyString(), Mockito.any(),
+                        Mockito.any()))
+                .thenAnswer(invocation -> Mono.error(new IOException("Connection refused")));
+
+        for (int i = 0; i < 60; i++) {
+            get().onErrorResume(IOException.class, e -> Mono.empty()).block();
+        }
+
+        assertEquals(1, ejections("http://one"));
+    }
+
+    @Test
+    void exchange_whenApplicationError_shouldNotEject() {
+        respond(upstreams.get("http://one"), HttpStatus.INTERNAL_SERVER_ERROR);
+
+        for (int i = 0; i < 60; i++) {
+            get().block();
+        }
+
+        assertEquals(0, ejections("http://one"));
+        assertEquals(1, gauge("available", "http://one"));
+    }
+
+    @Test
+    void exchange_whenNoInstanceIsAvailable_shouldUseAll() {
+        for (String url : URLS) {
+            health.expect(requestTo(url + "/actuator/health")).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        }
+        endpoints.checkHealth();
+
+        assertEquals(HttpStatus.OK, get().block().getStatusCode());
+    }
+
+    @Test
+    void balance_shouldUseSingleInstanceDirectly() {
+        ServerTransport single = Mockito.mock(ServerTransport.class);
+        RestTemplate healthCheck = new RestTemplate();
+        MockRestServiceServer noHealthChecks = MockRestServiceServer.bindTo(healthCheck).build();
+        ServerEndpoints one = new ServerEndpoints(List.of("http://one"), new BalancerProperties(), healthCheck);
+
+        assertSame(single, one.balance(url -> single));
+        one.checkHealth();
+        noHealthChecks.verify();
+    }
+
+    private static void respond(ServerTransport upstream, HttpStatus status) {
+        Mockito.when(upstream.exchange(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> Mono.just(ResponseEntity.status(status).build()));
+    }
+
+    private Mono<ResponseEntity<Object>> get() {
+        return transport.exchange(HttpMethod.GET, "/1", null, new HttpEntity<>(new HttpHeaders()));
+    }
+
+    private void verifyCalls(String url, int times) {
+        Mockito.verify(upstreams.get(url), Mockito.times(times)).exchange(Mockito.any(), Mockito.anyString(),
+                Mockito.any(), Mockito.any());
+    }
+
+    private double gauge(String name, String url) {
+        return registry.get("shareit.server.endpoint." + name).tag("endpoint", url).gauge().value();
+    }
+
+    private double ejections(String url) {
+        return registry.get("shareit.server.endpoint.ejections").tag("endpoint", url).functionCounter().count();
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.gateway.client;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import ru.practicum.gateway.exception.ErrorHandler;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamGuardTest {
+    private ServerTransport upstream;
+    private ServerTransport transport;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void beforeEach() {
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .failureRateThreshold(50)
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+        upstream = Mockito.mock(ServerTransport.class);
+        transport = new UpstreamGuard(bulkheads, circuitBreakers).wrap("/items", upstream);
+        circuitBreaker = circuitBreakers.circuitBreaker("items");
+    }
+
+    @Test
+    void exchange_shouldRecordServerErrorAndStillReturnIt() {
+        ResponseEntity<Object> serverError = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        respond(Mono.just(serverError));
+
+        ResponseEntity<Object> response = get().block();
+
+        assertSame(serverError, response);
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void exchange_shouldRecordClientErrorAsSuccess() {
+        respond(Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).build()));
+
+        assertEquals(HttpStatus.NOT_FOUND, get().block().getStatusCode());
+        assertEquals(1, circuitBreaker.getMetrics().getNumberOfSuccessfulCalls());
+    }
+
+    @Test
+    void exchange_shouldRejectCallsWhileCircuitIsOpen() {
+        respond(Mono.just(ResponseEntity.status(HttpStatus.BAD_GATEWAY).build()));
+        get().block();
+        get().block();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        CallNotPermittedException error = assertThrows(CallNotPermittedException.class, () -> get().block());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, new ErrorHandler().serverUnavailable(error).getStatusCode());
+    }
+
+    @Test
+    void exchange_shouldAnswerServiceUnavailableWhenBulkheadIsFull() {
+        Sinks.One<ResponseEntity<Object>> answer = Sinks.one();
+        respond(answer.asMono());
+        get().subscribe();
+
+        BulkheadFullException error = assertThrows(BulkheadFullException.class, () -> get().block());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, new ErrorHandler().serverUnavailable(error).getStatusCode());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+
+        answer.tryEmitValue(ResponseEntity.ok().build());
+        respond(Mono.just(ResponseEntity.ok().build()));
+        assertEquals(HttpStatus.OK, get().block().getStatusCode());
+    }
+
+    @Test
+    void stream_shouldBeRejectedWhenBulkheadIsFull() {
+        respond(Sinks.<ResponseEntity<Object>>one().asMono());
+        get().subscribe();
+
+        assertThrows(BulkheadFullException.class, () -> transport.stream("/export", null, new HttpHeaders(),
+                new MockHttpServletResponse()));
+    }
+
+    private void respond(Mono<ResponseEntity<Object>> answer) {
+        Mockito.when(upstream.exchange(Mockito.any(), Mockito.anyString(), Mockito.any(), Mockito.any()))
+                .thenReturn(answer);
+    }
+
+    private Mono<ResponseEntity<Object>> get() {
+        return transport.exchange(HttpMethod.GET, "/1", null, new HttpEntity<>(new HttpHeaders()));
+    }
+}
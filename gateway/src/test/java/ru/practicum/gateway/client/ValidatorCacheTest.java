@@ -0,0 +1,103 @@
+package ru.practicum.gateway.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValidatorCacheTest {
+    private ServerTransport upstream;
+    private ServerTransport transport;
+
+    @BeforeEach
+    void beforeEach() {
+        upstream = Mockito.mock(ServerTransport.class);
+        transport = new ValidatorCache(DataSize.ofMegabytes(1)).wrap("/items", upstream);
+    }
+
+    @Test
+    void exchange_shouldAnswerNotModifiedWithKeptBodyAndNewHeaders() {
+        respond(ok("\"1\"", "first", "max-age=0"), notModified("\"1\"", "max-age=60"));
+
+        get();
+        ResponseEntity<Object> response = get();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertArrayEquals("first".getBytes(), (byte[]) response.getBody());
+        assertEquals("max-age=60", response.getHeaders().getCacheControl());
+        assertEquals("\"1\"", response.getHeaders().getETag());
+        assertEquals(List.of("\"1\""), sentHeaders().get(1).getIfNoneMatch());
+    }
+
+    @Test
+    void exchange_shouldReplaceKeptResponseWithNewAnswer() {
+        respond(ok("\"1\"", "first", "max-age=0"), ok("\"2\"", "second", "max-age=0"),
+                notModified("\"2\"", "max-age=0"));
+
+        get();
+        get();
+        ResponseEntity<Object> response = get();
+
+        assertArrayEquals("second".getBytes(), (byte[]) response.getBody());
+        assertEquals(List.of("\"1\""), sentHeaders().get(1).getIfNoneMatch());
+        assertEquals(List.of("\"2\""), sentHeaders().get(2).getIfNoneMatch());
+    }
+
+    @Test
+    void exchange_shouldPassClientConditionalRequestThrough() {
+        respond(ok("\"1\"", "first", "max-age=0"), notModified("\"1\"", "max-age=0"));
+
+        get();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch("\"1\"");
+        ResponseEntity<Object> response = transport.exchange(HttpMethod.GET, "/1", null,
+                new HttpEntity<>(headers)).block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertTrue(sentHeaders().get(0).getIfNoneMatch().isEmpty());
+    }
+
+    @SafeVarargs
+    private void respond(ResponseEntity<Object>... answers) {
+        Iterator<ResponseEntity<Object>> iterator = List.of(answers).iterator();
+        Mockito.when(upstream.exchange(Mockito.eq(HttpMethod.GET), Mockito.anyString(), Mockito.any(),
+                Mockito.any())).thenAnswer(invocation -> Mono.just(iterator.next()));
+    }
+
+    private ResponseEntity<Object> get() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "1");
+        return transport.exchange(HttpMethod.GET, "/1", null, new HttpEntity<>(headers)).block();
+    }
+
+    private List<HttpHeaders> sentHeaders() {
+        ArgumentCaptor<HttpEntity<?>> requests = ArgumentCaptor.forClass(HttpEntity.class);
+        Mockito.verify(upstream, Mockito.atLeastOnce()).exchange(Mockito.eq(HttpMethod.GET), Mockito.anyString(),
+                Mockito.any(), requests.capture());
+        return requests.getAllValues().stream().map(HttpEntity::getHeaders).collect(Collectors.toList());
+    }
+
+    private static ResponseEntity<Object> ok(String etag, String body, String cacheControl) {
+        return ResponseEntity.ok().eTag(etag).header(HttpHeaders.CACHE_CONTROL, cacheControl).body(body.getBytes());
+    }
+
+    private static ResponseEntity<Object> notModified(String etag, String cacheControl) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl).build();
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.gateway.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitFilterTest {
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void beforeEach() {
+        RateLimitProperties.Route search = new RateLimitProperties.Route();
+        search.setMethod("GET");
+        search.setPattern("/items/search");
+        search.setCapacity(1);
+        search.setRefillPerSecond(0.4);
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setCapacity(2);
+        properties.setRefillPerSecond(10);
+        properties.setRoutes(List.of(search));
+        filter = new RateLimitFilter(properties, registry, now::get);
+    }
+
+    @Test
+    void doFilter_shouldAnswerTooManyRequestsWhenBucketIsEmpty() throws Exception {
+        assertEquals(HttpStatus.OK.value(), send("/users", "1").getStatus());
+        assertEquals(HttpStatus.OK.value(), send("/users", "1").getStatus());
+        MockHttpServletResponse response = send("/users", "1");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("{\"error\":\"Too many requests\"}", response.getContentAsString());
+        assertEquals(1, registry.get("shareit.gateway.throttled").tag("route", "default").counter().count());
+    }
+
+    @Test
+    void doFilter_shouldRoundRetryAfterUp() throws Exception {
+        send("/items/search", "1");
+        MockHttpServletResponse response = send("/items/search", "1");
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("3", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void doFilter_shouldRefillBucketOverTime() throws Exception {
+        send("/items/search", "1");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(2400));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), send("/items/search", "1").getStatus());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(HttpStatus.OK.value(), send("/items/search", "1").getStatus());
+    }
+
+    @Test
+    void doFilter_shouldKeepBucketPerUserAndRoute() throws Exception {
+        send("/items/search", "1");
+
+        assertEquals(HttpStatus.OK.value(), send("/items/search", "2").getStatus());
+        assertEquals(HttpStatus.OK.value(), send("/items", "1").getStatus());
+    }
+
+    private MockHttpServletResponse send(String uri, String userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("X-Sharer-User-Id", userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        if (response.getStatus() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            assertNull(chain.getRequest());
+        }
+        return response;
+    }
+}
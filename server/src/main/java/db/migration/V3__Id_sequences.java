@@ -0,0 +1,35 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Sequences for the pooled id generators of users and items, which let Hibernate batch their inserts.
+ * Each sequence starts after the ids already assigned by the identity column; this is computed here
+ * because neither PostgreSQL nor H2 accepts a subquery as the sequence start.
+ */
+public class V3__Id_sequences extends BaseJavaMigration {
+    private static final List<String> TABLES = List.of("users", "items");
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : TABLES) {
+                long start;
+                try (ResultSet maxId = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+                    maxId.next();
+                    start = maxId.getLong(1);
+                }
+                statement.execute("CREATE SEQUENCE " + table + "_seq START WITH " + start
+                        + " INCREMENT BY " + ALLOCATION_SIZE);
+            }
+        }
+    }
+}
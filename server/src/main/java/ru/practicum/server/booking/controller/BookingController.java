@@ -1,7 +1,9 @@
 package ru.practicum.server.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,55 +13,136 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingPageDto;
 import ru.practicum.server.booking.dto.BookingShortDto;
+import ru.practicum.server.booking.model.BookingState;
 import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.util.NdjsonWriter;
+import ru.practicum.server.util.ResourceVersions;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * States whose bookings change only with writes, the others depend on the current time and get no ETag.
+     */
+    private static final Set<String> TIMELESS_STATES = Set.of(BookingState.ALL.name(), BookingState.WAITING.name(),
+            BookingState.REJECTED.name());
+
     private final BookingService bookingService;
 
+    private final ObjectMapper objectMapper;
+
+    private final ResourceVersions resourceVersions;
+
     @PostMapping
     public BookingDto create(@RequestBody BookingShortDto bookingShortDto,
                              @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("POST:/bookings request received with parameters {}", bookingShortDto);
+        log.debug("POST:/bookings request received with parameters {}", bookingShortDto);
         return bookingService.create(bookingShortDto, userId);
     }
 
     @PatchMapping("/{bookingId}")
     public BookingDto approve(@PathVariable Long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId,
                               @RequestParam Boolean approved) {
-        log.info("PATCH:/{bookingsId} request received with parameters: bookingId = {}, userId = {}, approved = {}",
+        log.debug("PATCH:/{bookingsId} request received with parameters: bookingId = {}, userId = {}, approved = {}",
                 bookingId, userId, approved);
         return bookingService.approve(bookingId, userId, approved);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long ownerId,
-                                          @RequestParam(defaultValue = "ALL") String state,
-                                          @RequestParam(defaultValue = "0") Integer from,
-                                          @RequestParam(defaultValue = "10") Integer size) {
-        log.info("GET /bookings/owner?state={}&from={}&size={}.", state, from, size);
-        return bookingService.getAllByOwnerId(ownerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                          @RequestParam(defaultValue = "ALL") String state,
+                                                          @RequestParam(defaultValue = "0") Integer from,
+                                                          @RequestParam(defaultValue = "10") Integer size,
+                                                          @RequestParam(required = false) String cursor,
+                                                          WebRequest request) {
+        ResourceVersions.Tag tag = tag(ownerId, state);
+        if (tag != null && tag.checkNotModified(request)) {
+            return null;
+        }
+        ResponseEntity<List<BookingDto>> response;
+        if (cursor != null) {
+            log.debug("GET /bookings/owner?state={}&cursor={}&size={}.", state, cursor, size);
+            response = toResponse(bookingService.getPageByOwnerId(ownerId, state, cursor, size));
+        } else {
+            log.debug("GET /bookings/owner?state={}&from={}&size={}.", state, from, size);
+            response = ResponseEntity.ok(bookingService.getAllByOwnerId(ownerId, state, from, size));
+        }
+        if (tag != null) {
+            tag.setEtag(request, null);
+        }
+        return response;
+    }
+
+    /**
+     * Streams the owner's bookings as newline-delimited JSON while they are read from the database.
+     * Errors about the user or the state are answered as usual, before the first line is written.
+     */
+    @GetMapping("/owner/export")
+    public void exportByOwner(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                              @RequestParam(defaultValue = "ALL") String state,
+                              HttpServletResponse response) throws IOException {
+        log.debug("GET /bookings/owner/export?state={}.", state);
+        NdjsonWriter writer = new NdjsonWriter(objectMapper, response);
+        bookingService.exportByOwnerId(ownerId, state, writer);
+        writer.finish();
     }
 
     @GetMapping
-    public List<BookingDto> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long bookerId,
-                                         @RequestParam(defaultValue = "ALL") String state,
-                                         @RequestParam(defaultValue = "0") Integer from,
-                                         @RequestParam(defaultValue = "10") Integer size) {
-        log.info("GET /bookings?state={}&from={}&size={}.", state, from, size);
-        return bookingService.getAllByBookerId(bookerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getAllByUser(@RequestHeader("X-Sharer-User-Id") Long bookerId,
+                                                         @RequestParam(defaultValue = "ALL") String state,
+                                                         @RequestParam(defaultValue = "0") Integer from,
+                                                         @RequestParam(defaultValue = "10") Integer size,
+                                                         @RequestParam(required = false) String cursor,
+                                                         WebRequest request) {
+        ResourceVersions.Tag tag = tag(bookerId, state);
+        if (tag != null && tag.checkNotModified(request)) {
+            return null;
+        }
+        ResponseEntity<List<BookingDto>> response;
+        if (cursor != null) {
+            log.debug("GET /bookings?state={}&cursor={}&size={}.", state, cursor, size);
+            response = toResponse(bookingService.getPageByBookerId(bookerId, state, cursor, size));
+        } else {
+            log.debug("GET /bookings?state={}&from={}&size={}.", state, from, size);
+            response = ResponseEntity.ok(bookingService.getAllByBookerId(bookerId, state, from, size));
+        }
+        if (tag != null) {
+            tag.setEtag(request, null);
+        }
+        return response;
     }
 
     @GetMapping("/{bookingId}")
     public BookingDto getById(@PathVariable Long bookingId, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("GET:/{bookingsId} request received with parameters: userId = {}", userId);
+        log.debug("GET:/{bookingsId} request received with parameters: userId = {}", userId);
         return bookingService.getById(bookingId, userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tags the user's bookings in a timeless state, null for the other states.
+     */
+    private ResourceVersions.Tag tag(Long userId, String state) {
+        return TIMELESS_STATES.contains(state) ? resourceVersions.tag(ResourceVersions.bookings(userId), userId) : null;
+    }
+
+    private static ResponseEntity<List<BookingDto>> toResponse(BookingPageDto page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBookings());
+    }
+}
@@ -35,6 +35,19 @@ public class BookingDto {
     @Valid
     private Item item;
 
+    /**
+     * Constructor used by JPQL projections to read a booking with the booker and item names in one select.
+     */
+    public BookingDto(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                      Long bookerId, String bookerName, Long itemId, String itemName) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.status = status;
+        this.booker = new Booker(bookerId, bookerName);
+        this.item = new Item(itemId, itemName);
+    }
+
     @Data
     public class Booker {
         private final long id;
@@ -1,5 +1,6 @@
 package ru.practicum.server.booking.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Builder
+@AllArgsConstructor
 @EqualsAndHashCode
 public class BookingForItemDto {
     private Long id;
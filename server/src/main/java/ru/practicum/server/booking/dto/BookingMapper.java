@@ -76,4 +76,18 @@ public class BookingMapper {
                 .end(booking.getEnd())
                 .build();
     }
+
+    public static BookingForItemDto toBookingForItemDto(BookingDto bookingDto) {
+        if (bookingDto == null) {
+            return null;
+        }
+
+        return BookingForItemDto.builder()
+                .id(bookingDto.getId())
+                .bookerId(bookingDto.getBooker().getId())
+                .itemId(bookingDto.getItem().getId())
+                .start(bookingDto.getStart())
+                .end(bookingDto.getEnd())
+                .build();
+    }
 }
@@ -0,0 +1,19 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BookingPageDto {
+    private List<BookingDto> bookings;
+
+    /**
+     * Cursor of the following page or null if this page is the last one.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class BookingPeriodDto {
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.server.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Approved bookings of an item relative to a moment: how many have ended and when the next one ends.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemBookingTotalsDto {
+    private Long itemId;
+
+    private Long completed;
+
+    private LocalDateTime nextEnd;
+}
@@ -5,21 +5,52 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import ru.practicum.server.booking.dto.BookingForItemDto;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.user.model.User;
 
 import javax.persistence.Column;
+import javax.persistence.ColumnResult;
+import javax.persistence.ConstructorResult;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.SqlResultSetMapping;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
+/**
+ * Last and next APPROVED booking of every given item in one pass: bookings of an item are split into
+ * started (start <= now) and upcoming ones, ranked inside each part and only the closest to now are kept.
+ */
+@NamedNativeQuery(
+        name = "Booking.findLastAndNextApprovedByItemIdIn",
+        query = "SELECT ranked.id, ranked.start_date, ranked.end_date, ranked.item_id, ranked.booker_id " +
+                "FROM (SELECT b.id, b.start_date, b.end_date, b.item_id, b.booker_id, " +
+                "ROW_NUMBER() OVER (PARTITION BY b.item_id, b.start_date > :now " +
+                "ORDER BY CASE WHEN b.start_date > :now THEN b.start_date END, b.start_date DESC) AS position " +
+                "FROM bookings b " +
+                "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED') ranked " +
+                "WHERE ranked.position = 1",
+        resultSetMapping = "BookingForItemDto")
+@SqlResultSetMapping(
+        name = "BookingForItemDto",
+        classes = @ConstructorResult(
+                targetClass = BookingForItemDto.class,
+                columns = {
+                        @ColumnResult(name = "id", type = Long.class),
+                        @ColumnResult(name = "start_date", type = LocalDateTime.class),
+                        @ColumnResult(name = "end_date", type = LocalDateTime.class),
+                        @ColumnResult(name = "item_id", type = Long.class),
+                        @ColumnResult(name = "booker_id", type = Long.class)}))
 @Entity
 @Table(name = "bookings")
 @Getter
@@ -38,15 +69,23 @@ public class Booking {
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", referencedColumnName = "id", nullable = false)
     private Item item;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id", referencedColumnName = "id", nullable = false)
     private User booker;
 
     @Enumerated(EnumType.STRING)
     @Column(length = 10)
     private BookingStatus status;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, BookingStatus status) {
+        this(id, start, end, item, booker, status, null);
+    }
 }
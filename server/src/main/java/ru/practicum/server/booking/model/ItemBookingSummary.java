@@ -0,0 +1,136 @@
+package ru.practicum.server.booking.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.booking.dto.ItemBookingTotalsDto;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import java.time.LocalDateTime;
+
+/**
+ * Last and next APPROVED booking of an item and the number of its completed bookings, kept up to date
+ * by the writes that approve bookings. The summary only holds until {@code refreshAt}, the moment the next
+ * booking starts or an approved booking ends, after which it has to be recomputed from the bookings.
+ */
+@Entity
+@Table(name = "item_booking_summary")
+@Getter
+@NoArgsConstructor
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+
+    @Column(name = "last_start_date")
+    private LocalDateTime lastStart;
+
+    @Column(name = "last_end_date")
+    private LocalDateTime lastEnd;
+
+    @Column(name = "last_booker_id")
+    private Long lastBookerId;
+
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+
+    @Column(name = "next_start_date")
+    private LocalDateTime nextStart;
+
+    @Column(name = "next_end_date")
+    private LocalDateTime nextEnd;
+
+    @Column(name = "next_booker_id")
+    private Long nextBookerId;
+
+    @Column(name = "completed_bookings", nullable = false)
+    private long completedBookings;
+
+    @Column(name = "refresh_at")
+    private LocalDateTime refreshAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Summary of an item without approved bookings.
+     */
+    public ItemBookingSummary(Long itemId) {
+        this.itemId = itemId;
+    }
+
+    public boolean isFreshAt(LocalDateTime now) {
+        return refreshAt == null || refreshAt.isAfter(now);
+    }
+
+    public BookingForItemDto getLastBooking() {
+        return lastBookingId == null ? null
+                : new BookingForItemDto(lastBookingId, lastStart, lastEnd, itemId, lastBookerId);
+    }
+
+    public BookingForItemDto getNextBooking() {
+        return nextBookingId == null ? null
+                : new BookingForItemDto(nextBookingId, nextStart, nextEnd, itemId, nextBookerId);
+    }
+
+    /**
+     * Accounts for a newly approved booking, the summary must be fresh at {@code now}.
+     */
+    public void add(BookingForItemDto booking, LocalDateTime now) {
+        if (booking.getStart().isAfter(now)) {
+            if (nextBookingId == null || booking.getStart().isBefore(nextStart)) {
+                setNext(booking);
+            }
+        } else if (lastBookingId == null || booking.getStart().isAfter(lastStart)) {
+            setLast(booking);
+        }
+        if (booking.getEnd().isAfter(now)) {
+            refreshAt = earliest(refreshAt, booking.getEnd());
+        } else {
+            completedBookings++;
+        }
+        if (nextBookingId != null) {
+            refreshAt = earliest(refreshAt, nextStart);
+        }
+    }
+
+    /**
+     * Replaces the summary with one computed from the bookings, {@code totals} is null for an item
+     * without approved bookings.
+     */
+    public void recompute(BookingForItemDto last, BookingForItemDto next, ItemBookingTotalsDto totals) {
+        setLast(last);
+        setNext(next);
+        completedBookings = totals == null ? 0 : totals.getCompleted();
+        refreshAt = totals == null ? null : totals.getNextEnd();
+        if (next != null) {
+            refreshAt = earliest(refreshAt, next.getStart());
+        }
+    }
+
+    private void setLast(BookingForItemDto booking) {
+        lastBookingId = booking == null ? null : booking.getId();
+        lastStart = booking == null ? null : booking.getStart();
+        lastEnd = booking == null ? null : booking.getEnd();
+        lastBookerId = booking == null ? null : booking.getBookerId();
+    }
+
+    private void setNext(BookingForItemDto booking) {
+        nextBookingId = booking == null ? null : booking.getId();
+        nextStart = booking == null ? null : booking.getStart();
+        nextEnd = booking == null ? null : booking.getEnd();
+        nextBookerId = booking == null ? null : booking.getBookerId();
+    }
+
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isBefore(current) ? candidate : current;
+    }
+}
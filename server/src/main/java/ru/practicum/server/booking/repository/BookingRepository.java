@@ -1,69 +1,207 @@
 package ru.practicum.server.booking.repository;
 
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.booking.dto.ItemBookingTotalsDto;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingStatus;
-import ru.practicum.server.user.model.User;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-
-    List<Booking> findAllByBooker(User booker, Sort sort);
-
-    List<Booking> findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(Long bookerId, Long itemId,
-                                                                          BookingStatus status, LocalDateTime end);
-
-    List<Booking> findAllByBookerAndStartBeforeAndEndAfter(User booker, LocalDateTime start,
-                                                           LocalDateTime end, Sort sort);
-
-    List<Booking> findAllByBookerAndEndBefore(User booker, LocalDateTime end, Sort sort);
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-    List<Booking> findAllByBookerAndStartAfter(User booker, LocalDateTime start, Sort sort);
-
-    List<Booking> findAllByBookerAndStatusEquals(User booker, BookingStatus status, Sort sort);
-
-    List<Booking> findAllByItemOwner(User owner, Sort sort);
-
-    List<Booking> findAllByItemOwnerAndStartBeforeAndEndAfter(User owner, LocalDateTime start,
-                                                              LocalDateTime end, Sort sort);
-
-    List<Booking> findAllByItemOwnerAndEndBefore(User owner, LocalDateTime end, Sort sort);
+public interface BookingRepository extends JpaRepository<Booking, Long> {
+    String BOOKING_DTO = "select new ru.practicum.server.booking.dto.BookingDto(b.id, b.start, b.end, b.status, " +
+            "u.id, u.name, i.id, i.name) " +
+            "from Booking b join b.booker u join b.item i ";
 
-    List<Booking> findAllByItemOwnerAndStartAfter(User owner, LocalDateTime start, Sort sort);
+    String BY_BOOKER = "where u.id = :userId ";
 
-    List<Booking> findAllByItemOwnerAndStatusEquals(User owner, BookingStatus status, Sort sort);
+    String BY_OWNER = "where i.owner.id = :userId ";
 
-    Optional<Booking> findFirstByItemIdInAndStartLessThanEqualAndStatus(List<Long> idItems, LocalDateTime now,
-                                                                        BookingStatus approved, Sort sort);
+    String SEEK = "and (b.start < :start or (b.start = :start and b.id < :id)) ";
 
-    Optional<Booking> findFirstByItemIdInAndStartAfterAndStatus(List<Long> idItems, LocalDateTime now,
-                                                                BookingStatus approved, Sort sort);
+    String CURRENT = "and b.start < :now and b.end > :now ";
 
-    List<Booking> findAllByBookerId(Long userId, Pageable pageable);
+    String PAST = "and b.end < :now ";
 
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfter(Long userId, LocalDateTime t1, LocalDateTime t2,
-                                                             Pageable pageable);
+    String FUTURE = "and b.start > :now ";
 
-    List<Booking> findAllByBookerIdAndEndBefore(Long userId, LocalDateTime time, Pageable pageable);
+    String WITH_STATUS = "and b.status = :status ";
 
-    List<Booking> findAllByBookerIdAndStartAfter(Long userId, LocalDateTime time, Pageable pageable);
+    String SEEK_ORDER = "order by b.start desc, b.id desc";
 
-    List<Booking> findAllByBookerIdAndStatus(Long userId, BookingStatus status, Pageable pageable);
+    String EXPORT_FETCH_SIZE = "500";
 
-    List<Booking> findAllByItemOwnerId(Long userId, Pageable pageable);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @Override
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfter(Long userId, LocalDateTime t1, LocalDateTime t2,
-                                                                Pageable pageable);
+    @Query(BOOKING_DTO + "where b.id = :id")
+    Optional<BookingDto> findDtoById(@Param("id") Long id);
 
-    List<Booking> findAllByItemOwnerIdAndEndBefore(Long userId, LocalDateTime now, Pageable pageable);
+    /**
+     * Moves a WAITING booking of an item owned by ownerId to the given status and bumps its version.
+     * Concurrent calls are serialized by the row lock and the WAITING check is re-evaluated after it,
+     * so only one of them updates the row.
+     *
+     * @return 1 if the booking was decided, 0 if it is missing, not owned by ownerId or no longer WAITING
+     */
+    @Modifying
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :id and b.status = ru.practicum.server.booking.model.BookingStatus.WAITING " +
+            "and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int decideIfWaiting(@Param("id") Long id, @Param("ownerId") Long ownerId, @Param("status") BookingStatus status);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfter(Long userId, LocalDateTime now, Pageable pageable);
+    boolean existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Long itemId, Collection<BookingStatus> statuses,
+                                                               LocalDateTime end, LocalDateTime start);
 
-    List<Booking> findAllByItemOwnerIdAndStatus(Long userId, BookingStatus waiting, Pageable pageable);
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, BookingStatus status,
+                                                           LocalDateTime end);
+
+    /**
+     * Returns the last (start <= now) and the next (start > now) APPROVED booking of every item,
+     * at most two rows per item.
+     */
+    @Query(nativeQuery = true, name = "Booking.findLastAndNextApprovedByItemIdIn")
+    List<BookingForItemDto> findLastAndNextApprovedByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                              @Param("now") LocalDateTime now);
+
+    /**
+     * Number of APPROVED bookings of every given item that have ended by now and the earliest end of the others,
+     * items without APPROVED bookings are missing from the result.
+     */
+    @Query("select new ru.practicum.server.booking.dto.ItemBookingTotalsDto(b.item.id, " +
+            "sum(case when b.end <= :now then 1 else 0 end), min(case when b.end > :now then b.end end)) " +
+            "from Booking b " +
+            "where b.item.id in :itemIds and b.status = ru.practicum.server.booking.model.BookingStatus.APPROVED " +
+            "group by b.item.id")
+    List<ItemBookingTotalsDto> findApprovedTotalsByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                                           @Param("now") LocalDateTime now);
+
+    @Query(BOOKING_DTO + BY_BOOKER)
+    List<BookingDto> findAllByBookerId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + CURRENT)
+    List<BookingDto> findCurrentByBookerId(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                           Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + PAST)
+    List<BookingDto> findPastByBookerId(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                        Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + FUTURE)
+    List<BookingDto> findFutureByBookerId(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                          Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + WITH_STATUS)
+    List<BookingDto> findAllByBookerIdAndStatus(@Param("userId") Long userId, @Param("status") BookingStatus status,
+                                                Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER)
+    List<BookingDto> findAllByItemOwnerId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + CURRENT)
+    List<BookingDto> findCurrentByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                              Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + PAST)
+    List<BookingDto> findPastByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                           Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + FUTURE)
+    List<BookingDto> findFutureByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                             Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + WITH_STATUS)
+    List<BookingDto> findAllByItemOwnerIdAndStatus(@Param("userId") Long userId,
+                                                   @Param("status") BookingStatus status, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + SEEK + SEEK_ORDER)
+    List<BookingDto> seekAllByBookerId(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                       @Param("id") Long id, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + SEEK + CURRENT + SEEK_ORDER)
+    List<BookingDto> seekCurrentByBookerId(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                           @Param("id") Long id, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + SEEK + PAST + SEEK_ORDER)
+    List<BookingDto> seekPastByBookerId(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                        @Param("id") Long id, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + SEEK + FUTURE + SEEK_ORDER)
+    List<BookingDto> seekFutureByBookerId(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                          @Param("id") Long id, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_BOOKER + SEEK + WITH_STATUS + SEEK_ORDER)
+    List<BookingDto> seekByBookerIdAndStatus(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                             @Param("id") Long id, @Param("status") BookingStatus status,
+                                             Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + SEEK + SEEK_ORDER)
+    List<BookingDto> seekAllByItemOwnerId(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                          @Param("id") Long id, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + SEEK + CURRENT + SEEK_ORDER)
+    List<BookingDto> seekCurrentByItemOwnerId(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                              @Param("id") Long id, @Param("now") LocalDateTime now,
+                                              Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + SEEK + PAST + SEEK_ORDER)
+    List<BookingDto> seekPastByItemOwnerId(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                           @Param("id") Long id, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + SEEK + FUTURE + SEEK_ORDER)
+    List<BookingDto> seekFutureByItemOwnerId(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                             @Param("id") Long id, @Param("now") LocalDateTime now,
+                                             Pageable pageable);
+
+    @Query(BOOKING_DTO + BY_OWNER + SEEK + WITH_STATUS + SEEK_ORDER)
+    List<BookingDto> seekByItemOwnerIdAndStatus(@Param("userId") Long userId, @Param("start") LocalDateTime start,
+                                                @Param("id") Long id, @Param("status") BookingStatus status,
+                                                Pageable pageable);
+
+    /**
+     * Streams all the owner's bookings, newest first. Rows are read from a cursor {@value EXPORT_FETCH_SIZE}
+     * at a time, so the stream has to be consumed and closed inside the transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BOOKING_DTO + BY_OWNER + SEEK_ORDER)
+    Stream<BookingDto> streamAllByItemOwnerId(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BOOKING_DTO + BY_OWNER + CURRENT + SEEK_ORDER)
+    Stream<BookingDto> streamCurrentByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BOOKING_DTO + BY_OWNER + PAST + SEEK_ORDER)
+    Stream<BookingDto> streamPastByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BOOKING_DTO + BY_OWNER + FUTURE + SEEK_ORDER)
+    Stream<BookingDto> streamFutureByItemOwnerId(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(BOOKING_DTO + BY_OWNER + WITH_STATUS + SEEK_ORDER)
+    Stream<BookingDto> streamByItemOwnerIdAndStatus(@Param("userId") Long userId,
+                                                    @Param("status") BookingStatus status);
+
+    @Query("select new ru.practicum.server.booking.dto.BookingForItemDto(b.id, b.start, b.end, b.item.id, b.booker.id) " +
+            "from Booking b " +
+            "where b.status in ?1 and b.end > ?2")
+    List<BookingForItemDto> findAllPeriodsByStatusInAndEndAfter(Collection<BookingStatus> statuses,
+                                                                LocalDateTime now);
 
 }
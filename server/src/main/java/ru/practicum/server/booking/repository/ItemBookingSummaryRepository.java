@@ -0,0 +1,33 @@
+package ru.practicum.server.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.server.booking.model.ItemBookingSummary;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary s where s.itemId = :itemId")
+    Optional<ItemBookingSummary> findForUpdate(@Param("itemId") Long itemId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ItemBookingSummary s where s.refreshAt <= :now order by s.itemId")
+    List<ItemBookingSummary> findStaleForUpdate(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Marks the summaries of the items the user has bookings for as stale, before the bookings are removed
+     * by the ON DELETE CASCADE of the booker reference.
+     */
+    @Modifying
+    @Query("update ItemBookingSummary s set s.refreshAt = :now, s.version = s.version + 1 " +
+            "where s.itemId in (select b.item.id from Booking b where b.booker.id = :bookerId)")
+    int expireByBookerId(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,196 @@
+package ru.practicum.server.booking.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.booking.dto.BookingPeriodDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the periods in which items are occupied by WAITING or APPROVED bookings.
+ * For every item the occupied periods are kept merged into non-overlapping spans ordered by start,
+ * so an overlap check for [start, end) is a single {@link TreeMap#lowerEntry} lookup.
+ * The index answers the busy periods of items: it sees committed bookings of this instance at once and the ones
+ * of other instances after the next {@link #load}. It is not asked when a booking is created, the overlap guard
+ * is the check made by the database under the item row lock.
+ * Bookings that have ended are dropped when the item is reserved and by a job running with the delay
+ * shareit.availability-index.eviction-interval, which also drops the timelines left empty.
+ */
+@Component
+public class BookingAvailabilityIndex {
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the index with the given bookings. Readers keep using the previous timelines until they are
+     * swapped, a reservation made meanwhile may be lost until the next load.
+     */
+    public void load(Collection<BookingForItemDto> bookings) {
+        Map<Long, ItemTimeline> loaded = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        bookings.stream()
+                .filter(b -> b.getEnd().isAfter(now))
+                .forEach(b -> loaded.computeIfAbsent(b.getItemId(), id -> new ItemTimeline())
+                        .add(b.getId(), b.getStart(), b.getEnd()));
+        timelines.keySet().stream()
+                .filter(itemId -> !loaded.containsKey(itemId))
+                .forEach(this::remove);
+        loaded.forEach((itemId, timeline) -> {
+            ItemTimeline previous = timelines.put(itemId, timeline);
+            if (previous != null) {
+                previous.detach();
+            }
+        });
+    }
+
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null || timeline.isFree(start, end);
+    }
+
+    /**
+     * Occupies the period for a committed booking, whose overlap with other bookings has been checked.
+     */
+    public void reserve(Long itemId, Long bookingId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now();
+        while (true) {
+            ItemTimeline timeline = timeline(itemId);
+            synchronized (timeline) {
+                // a timeline dropped meanwhile is no longer in the map, the reservation goes to a new one
+                if (!timeline.detached) {
+                    timeline.evictEnded(now);
+                    timeline.add(bookingId, start, end);
+                    return;
+                }
+            }
+        }
+    }
+
+    public void release(Long itemId, Long bookingId) {
+        ItemTimeline timeline = timelines.get(itemId);
+        if (timeline != null) {
+            timeline.remove(bookingId);
+        }
+    }
+
+    /**
+     * Drops the timeline of a deleted item.
+     */
+    public void remove(Long itemId) {
+        ItemTimeline timeline = timelines.remove(itemId);
+        if (timeline != null) {
+            timeline.detach();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.availability-index.eviction-interval:PT10M}",
+            initialDelayString = "${shareit.availability-index.eviction-interval:PT10M}")
+    public void evictEnded() {
+        evictEnded(LocalDateTime.now());
+    }
+
+    /**
+     * Drops the bookings that ended at or before now and the timelines of items without other bookings.
+     */
+    public void evictEnded(LocalDateTime now) {
+        timelines.forEach((itemId, timeline) -> {
+            synchronized (timeline) {
+                timeline.evictEnded(now);
+                if (timeline.isEmpty()) {
+                    timeline.detach();
+                    timelines.remove(itemId, timeline);
+                }
+            }
+        });
+    }
+
+    public List<BookingPeriodDto> getBusyPeriods(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null ? List.of() : timeline.getBusy(start, end);
+    }
+
+    private ItemTimeline timeline(Long itemId) {
+        return timelines.computeIfAbsent(itemId, id -> new ItemTimeline());
+    }
+
+    private static class ItemTimeline {
+        private final Map<Long, BookingPeriodDto> bookings = new HashMap<>();
+
+        private final TreeMap<LocalDateTime, LocalDateTime> busy = new TreeMap<>();
+
+        private boolean detached;
+
+        synchronized boolean isFree(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> candidate = busy.lowerEntry(end);
+            return candidate == null || !candidate.getValue().isAfter(start);
+        }
+
+        synchronized void add(Long bookingId, LocalDateTime start, LocalDateTime end) {
+            bookings.put(bookingId, new BookingPeriodDto(start, end));
+            merge(start, end);
+        }
+
+        synchronized void remove(Long bookingId) {
+            if (bookings.remove(bookingId) != null) {
+                // spans can't be split back into bookings, so the item's timeline is rebuilt
+                busy.clear();
+                bookings.values().forEach(p -> merge(p.getStart(), p.getEnd()));
+            }
+        }
+
+        synchronized void evictEnded(LocalDateTime now) {
+            Map.Entry<LocalDateTime, LocalDateTime> first = busy.firstEntry();
+            if (first == null || first.getValue().isAfter(now)) {
+                return;
+            }
+            // spans are disjoint and ordered, so the ended ones are at the head
+            while (!busy.isEmpty() && !busy.firstEntry().getValue().isAfter(now)) {
+                busy.pollFirstEntry();
+            }
+            bookings.values().removeIf(p -> !p.getEnd().isAfter(now));
+        }
+
+        synchronized boolean isEmpty() {
+            return bookings.isEmpty();
+        }
+
+        synchronized void detach() {
+            detached = true;
+        }
+
+        synchronized List<BookingPeriodDto> getBusy(LocalDateTime start, LocalDateTime end) {
+            List<BookingPeriodDto> result = new ArrayList<>();
+            Map.Entry<LocalDateTime, LocalDateTime> first = busy.lowerEntry(start);
+            if (first != null && first.getValue().isAfter(start)) {
+                result.add(new BookingPeriodDto(first.getKey(), first.getValue()));
+            }
+            busy.subMap(start, true, end, false)
+                    .forEach((s, e) -> result.add(new BookingPeriodDto(s, e)));
+            return result;
+        }
+
+        private void merge(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> floor = busy.floorEntry(start);
+            if (floor != null && !floor.getValue().isBefore(start)) {
+                start = floor.getKey();
+                end = floor.getValue().isAfter(end) ? floor.getValue() : end;
+            }
+            NavigableMap<LocalDateTime, LocalDateTime> absorbed = busy.subMap(start, true, end, true);
+            for (LocalDateTime spanEnd : absorbed.values()) {
+                if (spanEnd.isAfter(end)) {
+                    end = spanEnd;
+                }
+            }
+            absorbed.clear();
+            busy.put(start, end);
+        }
+    }
+}
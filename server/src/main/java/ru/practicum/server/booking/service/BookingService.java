@@ -1,9 +1,11 @@
 package ru.practicum.server.booking.service;
 
 import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingPageDto;
 import ru.practicum.server.booking.dto.BookingShortDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto create(BookingShortDto bookingShortDto, Long userId);
@@ -17,4 +19,20 @@ public interface BookingService {
 
     List<BookingDto> getAllByBookerId(Long userId, String state, Integer from, Integer size);
 
+    /**
+     * Returns the owner's bookings following the cursor; an empty cursor requests the first page.
+     */
+    BookingPageDto getPageByOwnerId(Long userId, String state, String cursor, Integer size);
+
+    /**
+     * Returns the booker's bookings following the cursor; an empty cursor requests the first page.
+     */
+    BookingPageDto getPageByBookerId(Long userId, String state, String cursor, Integer size);
+
+    /**
+     * Passes all the owner's bookings in the state to the sink, newest first, without collecting them.
+     * The user and the state are checked before the first booking is passed.
+     */
+    void exportByOwnerId(Long userId, String state, Consumer<? super BookingDto> sink);
+
 }
\ No newline at end of file
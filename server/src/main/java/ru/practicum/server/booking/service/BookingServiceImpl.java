@@ -1,44 +1,78 @@
 package ru.practicum.server.booking.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.dto.BookingCursor;
 import ru.practicum.server.booking.dto.BookingDto;
-import ru.practicum.server.booking.dto.BookingMapper;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.booking.dto.BookingPageDto;
 import ru.practicum.server.booking.dto.BookingShortDto;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingState;
+import ru.practicum.server.booking.model.BookingStatus;
 import ru.practicum.server.booking.repository.BookingRepository;
 import ru.practicum.server.exception.BadRequestException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.exception.ValidationException;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemCache;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.util.MetricsConfig;
+import ru.practicum.server.util.ResourceVersions;
+import ru.practicum.server.util.TransactionHooks;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static ru.practicum.server.booking.dto.BookingMapper.toBooking;
 import static ru.practicum.server.booking.dto.BookingMapper.toBookingDto;
+import static ru.practicum.server.booking.dto.BookingMapper.toBookingForItemDto;
 import static ru.practicum.server.booking.model.BookingStatus.*;
 
+@Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final List<BookingStatus> OCCUPYING = List.of(WAITING, APPROVED);
+
+    private static final int APPROVE_ATTEMPTS = 3;
+
     private final BookingRepository bookingRepository;
 
     private final UserRepository userRepository;
 
     private final ItemRepository itemRepository;
 
-    private final Sort sort = Sort.by(Sort.Direction.DESC, "start");
+    private final BookingAvailabilityIndex availabilityIndex;
+
+    private final ItemCache itemCache;
+
+    private final ItemBookingSummaries bookingSummaries;
+
+    private final ResourceVersions resourceVersions;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Sort sort = Sort.by(Sort.Direction.DESC, "start").and(Sort.by(Sort.Direction.DESC, "id"));
 
     @Transactional
     @Override
@@ -46,7 +80,7 @@ public class BookingServiceImpl implements BookingService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("Not possible create Booking - " +
                         "Not found User with Id " + userId));
-        Item item = itemRepository.findById(bookingShortDto.getItemId())
+        Item item = itemRepository.findByIdForUpdate(bookingShortDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("Not possible create Booking - " +
                         "Not found Item with Id " + bookingShortDto.getItemId()));
         if (item.getOwner().getId().equals(userId)) {
@@ -62,17 +96,58 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException("Not possible create Booking - " +
                     "the end date of the booking cannot be earlier than the start date of the booking");
         }
+        // the item row lock taken above makes this check final; the availability index is not asked, it may miss
+        // bookings of other instances and would only save the check when it rejects
+        if (bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(item.getId(), OCCUPYING,
+                booking.getEnd(), booking.getStart())) {
+            throw new BadRequestException("Not possible create Booking - " +
+                    "the item is already booked for the requested period");
+        }
         booking.setBooker(user);
         booking.setItem(item);
         booking.setStatus(WAITING);
         bookingRepository.save(booking);
+        Long itemId = item.getId();
+        Long bookingId = booking.getId();
+        TransactionHooks.afterCommit(() -> availabilityIndex.reserve(itemId, bookingId, booking.getStart(),
+                booking.getEnd()));
+        resourceVersions.changed(ResourceVersions.bookings(userId), ResourceVersions.bookings(item.getOwner().getId()));
 
         return toBookingDto(booking);
     }
 
-    @Transactional
+    /**
+     * Decides the booking with a single conditional UPDATE, so concurrent approvals have exactly one winner
+     * and the entity graph is not loaded. When nothing was updated the booking is loaded to report why.
+     * A transaction that fails on a concurrently modified row, e.g. the booking summary of the item, is retried
+     * up to APPROVE_ATTEMPTS times when approve is not called inside another transaction; a retry that finds
+     * the booking decided answers like any other late decision.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     @Override
     public BookingDto approve(Long bookingId, Long userId, Boolean approved) {
+        BookingStatus status = approved ? APPROVED : REJECTED;
+        boolean retryable = !TransactionSynchronizationManager.isActualTransactionActive();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(transaction -> decide(bookingId, userId, status));
+            } catch (OptimisticLockingFailureException e) {
+                if (!retryable || attempt == APPROVE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Retrying the decision of Booking with Id {} after a concurrent modification", bookingId);
+            }
+        }
+    }
+
+    private BookingDto decide(Long bookingId, Long userId, BookingStatus status) {
+        if (bookingRepository.decideIfWaiting(bookingId, userId, status) == 1) {
+            BookingDto bookingDto = bookingRepository.findDtoById(bookingId)
+                    .orElseThrow(() -> new NotFoundException("There is no Booking with Id " + bookingId));
+            onDecided(toBookingForItemDto(bookingDto), userId, status);
+            return bookingDto;
+        }
+
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Not possible create Booking - " +
                         "Not found Booking with Id " + bookingId));
@@ -80,17 +155,24 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Not possible create booking - " +
                     "Not found Booking with Id " + bookingId + " for user with an id" + userId);
         }
-        if (!booking.getStatus().equals(WAITING)) {
-            throw new BadRequestException("It is not possible to confirm the Booking - " +
-                    "the booking has already been confirmed or declined");
-        }
-        if (approved) {
-            booking.setStatus(APPROVED);
+        throw new BadRequestException("It is not possible to confirm the Booking - " +
+                "the booking has already been confirmed or declined");
+    }
+
+    private void onDecided(BookingForItemDto booking, Long ownerId, BookingStatus status) {
+        Long itemId = booking.getItemId();
+        Long bookingId = booking.getId();
+        if (status == APPROVED) {
+            bookingSummaries.onApproved(booking);
+            itemCache.invalidate(itemId);
+            resourceVersions.changed(ResourceVersions.bookings(booking.getBookerId()),
+                    ResourceVersions.bookings(ownerId), ResourceVersions.item(itemId),
+                    ResourceVersions.ownerItems(ownerId));
         } else {
-            booking.setStatus(REJECTED);
+            resourceVersions.changed(ResourceVersions.bookings(booking.getBookerId()),
+                    ResourceVersions.bookings(ownerId));
+            TransactionHooks.afterCommit(() -> availabilityIndex.release(itemId, bookingId));
         }
-
-        return toBookingDto(booking);
     }
 
     @Override
@@ -111,23 +193,20 @@ public class BookingServiceImpl implements BookingService {
         validationUserAndFrom(userId, from);
 
         try {
-            List<Booking> bookings;
-            Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
+            List<BookingDto> bookings;
+            Pageable pageable = PageRequest.of(from / size, size, sort);
             switch (BookingState.valueOf(state)) {
                 case ALL:
                     bookings = bookingRepository.findAllByItemOwnerId(userId, pageable);
                     break;
                 case CURRENT:
-                    bookings = bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(userId,
-                            LocalDateTime.now(), LocalDateTime.now(), pageable);
+                    bookings = bookingRepository.findCurrentByItemOwnerId(userId, LocalDateTime.now(), pageable);
                     break;
                 case PAST:
-                    bookings = bookingRepository.findAllByItemOwnerIdAndEndBefore(userId, LocalDateTime.now(),
-                            pageable);
+                    bookings = bookingRepository.findPastByItemOwnerId(userId, LocalDateTime.now(), pageable);
                     break;
                 case FUTURE:
-                    bookings = bookingRepository.findAllByItemOwnerIdAndStartAfter(userId, LocalDateTime.now(),
-                            pageable);
+                    bookings = bookingRepository.findFutureByItemOwnerId(userId, LocalDateTime.now(), pageable);
                     break;
                 case WAITING:
                     bookings = bookingRepository.findAllByItemOwnerIdAndStatus(userId, WAITING, pageable);
@@ -138,7 +217,7 @@ public class BookingServiceImpl implements BookingService {
                 default:
                     throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
             }
-            return bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+            return bookings;
         } catch (RuntimeException e) {
             throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
         }
@@ -151,21 +230,20 @@ public class BookingServiceImpl implements BookingService {
 
         try {
 
-            List<Booking> bookings;
-            Pageable pageable = PageRequest.of(from / size, size, Sort.by(Sort.Direction.DESC, "start"));
+            List<BookingDto> bookings;
+            Pageable pageable = PageRequest.of(from / size, size, sort);
             switch (BookingState.valueOf(state)) {
                 case ALL:
                     bookings = bookingRepository.findAllByBookerId(userId, pageable);
                     break;
                 case CURRENT:
-                    bookings = bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(userId, LocalDateTime.now(),
-                            LocalDateTime.now(), pageable);
+                    bookings = bookingRepository.findCurrentByBookerId(userId, LocalDateTime.now(), pageable);
                     break;
                 case PAST:
-                    bookings = bookingRepository.findAllByBookerIdAndEndBefore(userId, LocalDateTime.now(), pageable);
+                    bookings = bookingRepository.findPastByBookerId(userId, LocalDateTime.now(), pageable);
                     break;
                 case FUTURE:
-                    bookings = bookingRepository.findAllByBookerIdAndStartAfter(userId, LocalDateTime.now(), pageable);
+                    bookings = bookingRepository.findFutureByBookerId(userId, LocalDateTime.now(), pageable);
                     break;
                 case WAITING:
                     bookings = bookingRepository.findAllByBookerIdAndStatus(userId, WAITING, pageable);
@@ -176,15 +254,147 @@ public class BookingServiceImpl implements BookingService {
                 default:
                     throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
             }
-            return bookings.stream().map(BookingMapper::toBookingDto).collect(Collectors.toList());
+            return bookings;
         } catch (RuntimeException e) {
             throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
         }
     }
 
+    @Override
+    public BookingPageDto getPageByOwnerId(Long userId, String state, String cursor, Integer size) {
+        if (cursor.isEmpty()) {
+            return toPage(getAllByOwnerId(userId, state, 0, size), size);
+        }
+        validationUserAndFrom(userId, 0);
+        BookingState bookingState = parseState(state);
+        BookingCursor position = BookingCursor.decode(cursor);
+        LocalDateTime start = position.getStart();
+        Long id = position.getId();
+        Pageable limit = PageRequest.of(0, size);
+
+        List<BookingDto> bookings;
+        switch (bookingState) {
+            case ALL:
+                bookings = bookingRepository.seekAllByItemOwnerId(userId, start, id, limit);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.seekCurrentByItemOwnerId(userId, start, id, LocalDateTime.now(), limit);
+                break;
+            case PAST:
+                bookings = bookingRepository.seekPastByItemOwnerId(userId, start, id, LocalDateTime.now(), limit);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.seekFutureByItemOwnerId(userId, start, id, LocalDateTime.now(), limit);
+                break;
+            case WAITING:
+                bookings = bookingRepository.seekByItemOwnerIdAndStatus(userId, start, id, WAITING, limit);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.seekByItemOwnerIdAndStatus(userId, start, id, REJECTED, limit);
+                break;
+            default:
+                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+        return toPage(bookings, size);
+    }
+
+    @Override
+    public BookingPageDto getPageByBookerId(Long userId, String state, String cursor, Integer size) {
+        if (cursor.isEmpty()) {
+            return toPage(getAllByBookerId(userId, state, 0, size), size);
+        }
+        validationUserAndFrom(userId, 0);
+        BookingState bookingState = parseState(state);
+        BookingCursor position = BookingCursor.decode(cursor);
+        LocalDateTime start = position.getStart();
+        Long id = position.getId();
+        Pageable limit = PageRequest.of(0, size);
+
+        List<BookingDto> bookings;
+        switch (bookingState) {
+            case ALL:
+                bookings = bookingRepository.seekAllByBookerId(userId, start, id, limit);
+                break;
+            case CURRENT:
+                bookings = bookingRepository.seekCurrentByBookerId(userId, start, id, LocalDateTime.now(), limit);
+                break;
+            case PAST:
+                bookings = bookingRepository.seekPastByBookerId(userId, start, id, LocalDateTime.now(), limit);
+                break;
+            case FUTURE:
+                bookings = bookingRepository.seekFutureByBookerId(userId, start, id, LocalDateTime.now(), limit);
+                break;
+            case WAITING:
+                bookings = bookingRepository.seekByBookerIdAndStatus(userId, start, id, WAITING, limit);
+                break;
+            case REJECTED:
+                bookings = bookingRepository.seekByBookerIdAndStatus(userId, start, id, REJECTED, limit);
+                break;
+            default:
+                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+        return toPage(bookings, size);
+    }
+
+    @Override
+    public void exportByOwnerId(Long userId, String state, Consumer<? super BookingDto> sink) {
+        validationUserAndFrom(userId, 0);
+        BookingState bookingState = parseState(state);
+        try (Stream<BookingDto> bookings = streamByOwnerId(userId, bookingState)) {
+            bookings.forEach(sink);
+        }
+    }
+
+    private Stream<BookingDto> streamByOwnerId(Long userId, BookingState state) {
+        switch (state) {
+            case ALL:
+                return bookingRepository.streamAllByItemOwnerId(userId);
+            case CURRENT:
+                return bookingRepository.streamCurrentByItemOwnerId(userId, LocalDateTime.now());
+            case PAST:
+                return bookingRepository.streamPastByItemOwnerId(userId, LocalDateTime.now());
+            case FUTURE:
+                return bookingRepository.streamFutureByItemOwnerId(userId, LocalDateTime.now());
+            case WAITING:
+                return bookingRepository.streamByItemOwnerIdAndStatus(userId, WAITING);
+            case REJECTED:
+                return bookingRepository.streamByItemOwnerIdAndStatus(userId, REJECTED);
+            default:
+                throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    /**
+     * Rebuilds the availability index from the database, also periodically with the delay
+     * shareit.availability-index.refresh-interval to pick up the bookings made and decided by other instances.
+     */
+    @Scheduled(fixedDelayString = "${shareit.availability-index.refresh-interval:PT1M}",
+            initialDelayString = "${shareit.availability-index.refresh-interval:PT1M}")
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAvailabilityIndex() {
+        availabilityIndex.load(bookingRepository.findAllPeriodsByStatusInAndEndAfter(OCCUPYING,
+                LocalDateTime.now()));
+    }
+
     public void validationUserAndFrom(Long userId, Integer from) {
         if (!userRepository.existsById(userId)) {
             throw new NotFoundException("Not found User with Id:" + userId);
         }
     }
-}
\ No newline at end of file
+
+    private static BookingState parseState(String state) {
+        try {
+            return BookingState.valueOf(state);
+        } catch (RuntimeException e) {
+            throw new ValidationException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    private static BookingPageDto toPage(List<BookingDto> bookings, Integer size) {
+        if (bookings.size() < size) {
+            return new BookingPageDto(bookings, null);
+        }
+        BookingDto last = bookings.get(bookings.size() - 1);
+        return new BookingPageDto(bookings, new BookingCursor(last.getStart(), last.getId()).encode());
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.server.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.booking.dto.ItemBookingTotalsDto;
+import ru.practicum.server.booking.model.ItemBookingSummary;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Maintains the item_booking_summary table, so that the last and next bookings of items are read
+ * by primary key instead of being searched among the bookings.
+ * A summary is created with its item and updated when a booking of the item is approved. It stays valid until
+ * its refreshAt moment, stale summaries are recomputed by a periodic rollover and meanwhile readers compute them
+ * from the bookings.
+ */
+@Slf4j
+@Component
+public class ItemBookingSummaries {
+    private final ItemBookingSummaryRepository summaryRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int rolloverBatchSize;
+
+    public ItemBookingSummaries(ItemBookingSummaryRepository summaryRepository, BookingRepository bookingRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${shareit.booking-summary.rollover-batch-size:500}") int rolloverBatchSize) {
+        this.summaryRepository = summaryRepository;
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rolloverBatchSize = rolloverBatchSize;
+    }
+
+    /**
+     * Summaries of the given items at the moment now, by item id. Fresh summaries are read by primary key,
+     * the ones that are stale or missing are computed from the bookings and left for the rollover to store.
+     */
+    public Map<Long, ItemBookingSummary> get(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, ItemBookingSummary> summaries = summaryRepository.findAllById(itemIds)
+                .stream()
+                .filter(summary -> summary.isFreshAt(now))
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity(), (a, b) -> a,
+                        HashMap::new));
+        List<ItemBookingSummary> computed = itemIds.stream()
+                .filter(id -> !summaries.containsKey(id))
+                .distinct()
+                .map(ItemBookingSummary::new)
+                .collect(toList());
+        recompute(computed, now);
+        computed.forEach(summary -> summaries.put(summary.getItemId(), summary));
+        return summaries;
+    }
+
+    public void create(Collection<Long> itemIds) {
+        summaryRepository.saveAll(itemIds.stream().map(ItemBookingSummary::new).collect(toList()));
+    }
+
+    /**
+     * Adds a booking that has just been approved to the summary of its item. The summary row is locked first,
+     * so approvals of bookings of the same item are applied one after another; a summary that is stale
+     * or missing is recomputed from the bookings instead.
+     */
+    public void onApproved(BookingForItemDto booking) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<ItemBookingSummary> summary = summaryRepository.findForUpdate(booking.getItemId());
+        if (summary.isPresent() && summary.get().isFreshAt(now)) {
+            summary.get().add(booking, now);
+            return;
+        }
+        refresh(List.of(booking.getItemId()));
+    }
+
+    /**
+     * Recomputes and stores the summaries of the given items, creating the missing ones.
+     */
+    public void refresh(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> existing = summaryRepository.findAllById(itemIds)
+                .stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, Function.identity()));
+        List<ItemBookingSummary> summaries = itemIds.stream()
+                .distinct()
+                .map(id -> existing.getOrDefault(id, new ItemBookingSummary(id)))
+                .collect(toList());
+        recompute(summaries, now);
+        summaryRepository.saveAll(summaries);
+    }
+
+    /**
+     * Marks the summaries that include bookings of the user as stale, it must be called before the user
+     * and their bookings are deleted.
+     */
+    public void expireByBookerId(Long bookerId) {
+        summaryRepository.expireByBookerId(bookerId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.rollover-interval:PT1M}",
+            initialDelayString = "${shareit.booking-summary.rollover-interval:PT1M}")
+    public void rollover() {
+        int recomputed = rollover(LocalDateTime.now());
+        if (recomputed > 0) {
+            log.debug("Recomputed {} item booking summaries", recomputed);
+        }
+    }
+
+    /**
+     * Recomputes the summaries that are stale at the moment now, one transaction per batch of rows.
+     * A recomputed summary is valid after now, so every summary is processed at most once.
+     *
+     * @return the number of recomputed summaries
+     */
+    public int rollover(LocalDateTime now) {
+        int total = 0;
+        int recomputed;
+        do {
+            recomputed = transactionTemplate.execute(status -> {
+                List<ItemBookingSummary> stale = summaryRepository.findStaleForUpdate(now,
+                        PageRequest.of(0, rolloverBatchSize));
+                recompute(stale, now);
+                summaryRepository.saveAll(stale);
+                return stale.size();
+            });
+            total += recomputed;
+        } while (recomputed == rolloverBatchSize);
+        return total;
+    }
+
+    private void recompute(List<ItemBookingSummary> summaries, LocalDateTime now) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        List<Long> itemIds = summaries.stream().map(ItemBookingSummary::getItemId).collect(toList());
+        Map<Boolean, Map<Long, BookingForItemDto>> bookings = bookingRepository
+                .findLastAndNextApprovedByItemIdIn(itemIds, now)
+                .stream()
+                .collect(Collectors.partitioningBy(b -> b.getStart().isAfter(now),
+                        Collectors.toMap(BookingForItemDto::getItemId, Function.identity())));
+        Map<Long, ItemBookingTotalsDto> totals = bookingRepository.findApprovedTotalsByItemIdIn(itemIds, now)
+                .stream()
+                .collect(Collectors.toMap(ItemBookingTotalsDto::getItemId, Function.identity()));
+
+        summaries.forEach(summary -> summary.recompute(bookings.get(false).get(summary.getItemId()),
+                bookings.get(true).get(summary.getItemId()), totals.get(summary.getItemId())));
+    }
+}
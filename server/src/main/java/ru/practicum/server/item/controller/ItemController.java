@@ -2,6 +2,7 @@ package ru.practicum.server.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -13,59 +14,109 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.server.booking.dto.BookingForItemDto;
 import ru.practicum.server.item.dto.CommentDto;
 import ru.practicum.server.item.dto.CommentShortDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
 import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.item.dto.ItemShortDto;
 import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.util.BatchResultDto;
 import ru.practicum.server.util.Create;
+import ru.practicum.server.util.ResourceVersions;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
+    public static final int BATCH_LIMIT = 1000;
+
     private final ItemService itemService;
 
+    private final ResourceVersions resourceVersions;
+
     @GetMapping
-    public List<ItemDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("GET:/items request received");
-        return itemService.getAll(userId);
+    public List<ItemDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId, WebRequest request) {
+        log.debug("GET:/items request received");
+        ResourceVersions.Tag tag = resourceVersions.tag(ResourceVersions.ownerItems(userId), userId);
+        if (tag.checkNotModified(request)) {
+            return null;
+        }
+        List<ItemDto> items = itemService.getAll(userId);
+        tag.setEtag(request, nextBookingStart(items));
+        return items;
     }
 
     @GetMapping("/{id}")
-    public ItemDto getById(@PathVariable Long id, @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("GET:/items/{id} request received with parameters: userId = {}", userId);
-        return itemService.getById(id, userId);
+    public ItemDto getById(@PathVariable Long id, @RequestHeader("X-Sharer-User-Id") Long userId,
+                           WebRequest request) {
+        log.debug("GET:/items/{id} request received with parameters: userId = {}", userId);
+        ResourceVersions.Tag tag = resourceVersions.tag(ResourceVersions.item(id), userId);
+        if (tag.checkNotModified(request)) {
+            return null;
+        }
+        ItemDto item = itemService.getById(id, userId);
+        tag.setEtag(request, nextBookingStart(List.of(item)));
+        return item;
+    }
+
+    @GetMapping("/{id}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long id,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime start,
+                                               @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                               LocalDateTime end) {
+        log.debug("GET:/items/{id}/availability request received with parameters: id = {}, start = {}, end = {}",
+                id, start, end);
+        return itemService.getAvailability(id, start, end);
     }
 
     @PostMapping
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") Long userId, @Validated(Create.class) @RequestBody ItemShortDto itemShortDto) {
-        log.info("POST:/items request received with parameters: userId = {}, itemDto = {}", userId, itemShortDto);
+        log.debug("POST:/items request received with parameters: userId = {}, itemDto = {}", userId, itemShortDto);
         return itemService.create(itemShortDto, userId);
     }
 
+    @PostMapping("/batch")
+    @Validated(Create.class)
+    public List<BatchResultDto<ItemDto>> createAll(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @NotEmpty(groups = Create.class)
+                                                   @Size(max = BATCH_LIMIT, groups = Create.class)
+                                                   @RequestBody List<@Valid ItemShortDto> itemShortDtos) {
+        log.debug("POST:/items/batch request received with parameters: userId = {}, {} items",
+                userId, itemShortDtos.size());
+        return itemService.createAll(itemShortDtos, userId);
+    }
+
     @PatchMapping("/{id}")
     public ItemDto update(@RequestBody ItemShortDto itemShortDto, @PathVariable Long id,
                           @RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("PATCH:/items/{id} request received with parameters: itemDto = {}, id = {}, userId = {}",
+        log.debug("PATCH:/items/{id} request received with parameters: itemDto = {}, id = {}, userId = {}",
                 itemShortDto, id, userId);
         return itemService.update(itemShortDto, id, userId);
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        log.info("DELETE:/items/{id} request received with parameters: id = {}", id);
+        log.debug("DELETE:/items/{id} request received with parameters: id = {}", id);
         itemService.delete(id);
     }
 
     @GetMapping("/search")
     public List<ItemDto> search(@RequestParam String text) {
-        log.info("GET:/search request received with parameters: text = {}", text);
+        log.debug("GET:/search request received with parameters: text = {}", text);
         if (!text.isBlank()) {
             return itemService.search(text);
         } else {
@@ -76,8 +127,20 @@ public class ItemController {
     @PostMapping("/{itemId}/comment")
     public CommentDto createComment(@PathVariable Long itemId, @RequestHeader("X-Sharer-User-Id") Long userId,
                                     @Valid @RequestBody CommentShortDto commentShortDto) {
-        log.info("POST:/items/{itemId}/comment request received with parameters: itemId = {}, userId = {}, commentDto = {}",
+        log.debug("POST:/items/{itemId}/comment request received with parameters: itemId = {}, userId = {}, commentDto = {}",
                 itemId, userId, commentShortDto);
         return itemService.createComment(itemId, userId, commentShortDto);
     }
+
+    /**
+     * The moment the next booking of one of the items starts and becomes its last booking.
+     */
+    private static LocalDateTime nextBookingStart(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getNextBooking)
+                .filter(Objects::nonNull)
+                .map(BookingForItemDto::getStart)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+    }
 }
@@ -0,0 +1,22 @@
+package ru.practicum.server.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class CommentForItemDto {
+    private Long id;
+
+    private Long itemId;
+
+    private String text;
+
+    private String authorName;
+
+    private LocalDateTime created;
+}
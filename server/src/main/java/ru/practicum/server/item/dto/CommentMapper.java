@@ -23,6 +23,15 @@ public class CommentMapper {
                 .build();
     }
 
+    public static CommentDto toCommentDto(CommentForItemDto comment) {
+        return CommentDto.builder()
+                .id(comment.getId())
+                .text(comment.getText())
+                .authorName(comment.getAuthorName())
+                .created(comment.getCreated())
+                .build();
+    }
+
     public static Comment toComment(CommentShortDto commentShortDto) {
         return Comment.builder()
                 .id(commentShortDto.getId())
@@ -0,0 +1,28 @@
+package ru.practicum.server.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import ru.practicum.server.booking.dto.BookingPeriodDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ItemAvailabilityDto {
+    private Long itemId;
+
+    private LocalDateTime start;
+
+    private LocalDateTime end;
+
+    private Boolean available;
+
+    private List<BookingPeriodDto> busy;
+}
@@ -1,5 +1,6 @@
 package ru.practicum.server.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -7,12 +8,13 @@ import lombok.Getter;
 import lombok.Setter;
 import ru.practicum.server.booking.dto.BookingForItemDto;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Getter
 @Setter
 @Builder(toBuilder = true)
-@AllArgsConstructor
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
 @EqualsAndHashCode
 public class ItemDto {
     private Long id;
@@ -30,4 +32,16 @@ public class ItemDto {
     private List<CommentDto> comments;
 
     private Long requestId;
+
+    /**
+     * Constructor used by JPQL projections, bookings and comments are filled in by the service.
+     */
+    public ItemDto(Long id, String name, String description, Boolean available, Long requestId) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.available = available;
+        this.comments = new ArrayList<>();
+        this.requestId = requestId;
+    }
 }
@@ -21,6 +21,27 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ItemDto toItemDto(ItemSearchDto itemSearchDto) {
+        return ItemDto.builder()
+                .id(itemSearchDto.getId())
+                .name(itemSearchDto.getName())
+                .description(itemSearchDto.getDescription())
+                .available(itemSearchDto.getAvailable())
+                .comments(new ArrayList<>())
+                .requestId(itemSearchDto.getRequestId())
+                .build();
+    }
+
+    public static ItemSearchDto toItemSearchDto(Item item) {
+        return new ItemSearchDto(
+                item.getId(),
+                item.getOwner() == null ? null : item.getOwner().getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getRequest() == null ? null : item.getRequest().getId());
+    }
+
     public static Item toItem(ItemDto itemDto) {
         return Item.builder()
                 .id(itemDto.getId())
@@ -0,0 +1,22 @@
+package ru.practicum.server.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ItemSearchDto {
+    private Long id;
+
+    private Long ownerId;
+
+    private String name;
+
+    private String description;
+
+    private Boolean available;
+
+    private Long requestId;
+}
@@ -1,13 +1,21 @@
 package ru.practicum.server.item.repository;
 
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.server.item.dto.CommentForItemDto;
 import ru.practicum.server.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(Long itemId);
+    String COMMENT_DTO = "select new ru.practicum.server.item.dto.CommentForItemDto(c.id, c.item.id, c.text, " +
+            "a.name, c.created) " +
+            "from Comment c join c.author a ";
 
-    List<Comment> findByItemIdIn(List<Long> idItems, Sort sort);
+    @Query(COMMENT_DTO + "where c.item.id = ?1 order by c.created desc")
+    List<CommentForItemDto> findAllByItemId(Long itemId);
+
+    @Query(COMMENT_DTO + "where c.item.id in ?1 order by c.created desc")
+    List<CommentForItemDto> findAllByItemIdIn(Collection<Long> itemIds);
 }
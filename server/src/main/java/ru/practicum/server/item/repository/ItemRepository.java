@@ -1,18 +1,50 @@
 package ru.practicum.server.item.repository;
 
-import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemSearchDto;
 import ru.practicum.server.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(Long ownerId, Sort sort);
+    String ITEM_DTO = "select new ru.practicum.server.item.dto.ItemDto(i.id, i.name, i.description, i.available, " +
+            "i.request.id) " +
+            "from Item i ";
 
-    List<Item> findByRequest_IdOrderById(Long requestId);
+    String ITEM_SEARCH_DTO = "select new ru.practicum.server.item.dto.ItemSearchDto(i.id, i.owner.id, i.name, " +
+            "i.description, i.available, r.id) " +
+            "from Item i left join i.request r ";
 
-    List<Item> findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAndAvailable(String text, String str,
-                                                                                              Boolean available);
+    /**
+     * Loads the item and locks its row until the end of the transaction, so that the bookings of the item
+     * are checked for overlaps and created one at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long id);
 
-    List<Item> findByRequest_IdIn(List<Long> requestsId);
-}
\ No newline at end of file
+    @Query(ITEM_DTO + "where i.owner.id = ?1 order by i.id")
+    List<ItemDto> findAllByOwnerId(Long ownerId);
+
+    @Query(ITEM_DTO + "where i.request.id = ?1 order by i.id")
+    List<ItemDto> findAllByRequestId(Long requestId);
+
+    @Query(ITEM_DTO + "where i.request.id in ?1 order by i.id")
+    List<ItemDto> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Query(ITEM_DTO + "where i.id in ?1 and i.available = true")
+    List<ItemDto> findAllAvailableByIdIn(Collection<Long> ids);
+
+    @Query(ITEM_SEARCH_DTO)
+    List<ItemSearchDto> findAllForSearch();
+
+    @Query(ITEM_SEARCH_DTO + "where i.updatedAt > ?1")
+    List<ItemSearchDto> findAllForSearchUpdatedAfter(LocalDateTime since);
+}
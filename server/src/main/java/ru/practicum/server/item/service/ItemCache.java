@@ -0,0 +1,134 @@
+package ru.practicum.server.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.util.TransactionHooks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of what {@link ItemServiceImpl#getById} assembles for an item: its fields,
+ * owner and comments, plus the last and next bookings once the owner has requested them.
+ * The bookings are kept until the next booking starts, as it becomes the last one at that moment.
+ * Every entry keeps the {@link ru.practicum.server.util.ResourceVersions resource version} of the item read
+ * before it was loaded and is reloaded once the version in the database is newer, so the writes of other
+ * instances are seen as soon as they are committed. Entries also expire after a TTL, are evicted by size
+ * and are invalidated by the local writes that change them.
+ * Statistics are published as cache.* metrics with the tag cache=items.
+ */
+@Component
+public class ItemCache implements MeterBinder {
+    private static final String NAME = "items";
+
+    private final Cache<Long, Entry> cache;
+
+    public ItemCache(@Value("${shareit.item-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${shareit.item-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached entry of the given version or newer, otherwise loads it. The version must be read
+     * before the loader reads the item. An invalidation issued while the entry is being loaded waits
+     * for the load and removes its result, so a load racing with a write is not kept.
+     */
+    public Entry get(Long id, long version, Function<Long, Entry> loader) {
+        Entry entry = cache.get(id, loader);
+        if (entry.version < version) {
+            cache.asMap().remove(id, entry);
+            entry = cache.get(id, loader);
+            if (entry.version < version) {
+                // an older load has been stored meanwhile, it is replaced by the next reader
+                entry = loader.apply(id);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Stores the bookings of the entry unless it has been invalidated or replaced meanwhile.
+     */
+    public Entry putBookings(Long id, Entry entry, BookingForItemDto lastBooking, BookingForItemDto nextBooking) {
+        Entry updated = new Entry(entry.version, entry.ownerId, entry.item, entry.comments, true,
+                lastBooking, nextBooking);
+        cache.asMap().computeIfPresent(id, (key, current) -> current == entry ? updated : current);
+        return updated;
+    }
+
+    /**
+     * Invalidates the entry now and again when the current transaction completes,
+     * so that neither a reader loading the pre-commit state nor an uncommitted state stays cached.
+     */
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        TransactionHooks.afterCommit(() -> cache.invalidate(id));
+        TransactionHooks.afterRollback(() -> cache.invalidate(id));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        TransactionHooks.afterCommit(cache::invalidateAll);
+        TransactionHooks.afterRollback(cache::invalidateAll);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, NAME);
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Entry {
+        private final long version;
+
+        private final Long ownerId;
+
+        private final ItemDto item;
+
+        private final List<CommentDto> comments;
+
+        private final boolean bookingsLoaded;
+
+        private final BookingForItemDto lastBooking;
+
+        private final BookingForItemDto nextBooking;
+
+        public Entry(long version, Long ownerId, ItemDto item, List<CommentDto> comments) {
+            this(version, ownerId, item, List.copyOf(comments), false, null, null);
+        }
+
+        public boolean hasBookingsAt(LocalDateTime now) {
+            return bookingsLoaded && (nextBooking == null || nextBooking.getStart().isAfter(now));
+        }
+
+        /**
+         * Returns a copy of the item with the comments, the caller may modify it.
+         */
+        public ItemDto toItemDto() {
+            return item.toBuilder()
+                    .lastBooking(null)
+                    .nextBooking(null)
+                    .comments(new ArrayList<>(comments))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package ru.practicum.server.item.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.item.dto.ItemSearchDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over item names and descriptions.
+ * Terms are lowercased words kept in a sorted dictionary, so every query word is matched as a prefix
+ * (after stripping a common inflectional ending) and results are ranked with BM25.
+ * Only available items are returned, all query words must match, at most shareit.search-index.max-results
+ * of the best ranked.
+ * The index only picks and ranks items, their current state is read from the database by the caller. It gets
+ * the committed writes of this instance at once and the ones of other instances when it is refreshed: the items
+ * written since the previous read, less shareit.search-index.refresh-overlap for transactions that committed
+ * late or instances whose clock is behind. Items deleted elsewhere are dropped when a search finds them missing.
+ */
+@Component
+public class ItemSearchIndex {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final List<String> ENDINGS = List.of(
+            "ами", "ями", "ого", "его", "ому", "ему", "ыми", "ими", "ing",
+            "ая", "яя", "ое", "ее", "ые", "ие", "ой", "ей", "ом", "ем", "ах", "ях", "ов", "ев", "ам", "ям", "ed", "es",
+            "ы", "и", "а", "я", "о", "е", "у", "ю", "ь", "й", "s");
+
+    private static final int MIN_STEM_LENGTH = 3;
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private static final Comparator<Map.Entry<Long, Double>> RANKING = Map.Entry.<Long, Double>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Postings postings = new Postings();
+
+    private List<Consumer<Postings>> pendingWrites;
+
+    private final int maxResults;
+
+    private final Duration refreshOverlap;
+
+    /**
+     * Start of the last read of the database, null until the index is loaded.
+     */
+    @Nullable
+    private LocalDateTime readAt;
+
+    public ItemSearchIndex(@Value("${shareit.search-index.max-results:100}") int maxResults,
+                           @Value("${shareit.search-index.refresh-overlap:PT1M}") Duration refreshOverlap) {
+        this.maxResults = maxResults;
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    public void load(Collection<ItemSearchDto> items) {
+        load(() -> items);
+    }
+
+    /**
+     * Rebuilds the index from the items returned by the reader. Searches use the previous index until the new one
+     * is built; writes made meanwhile go to both, so the ones the reader has missed are not lost.
+     */
+    public synchronized void load(Supplier<Collection<ItemSearchDto>> reader) {
+        LocalDateTime start = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Postings loaded = new Postings();
+        try {
+            reader.get().forEach(loaded::add);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingWrites.forEach(write -> write.accept(loaded));
+                pendingWrites = null;
+                postings = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        readAt = start;
+    }
+
+    /**
+     * Puts the items the reader returns as written after the given time, which is the previous read less
+     * the refresh overlap. Does nothing until the index is loaded.
+     */
+    public synchronized void refresh(Function<LocalDateTime, Collection<ItemSearchDto>> reader) {
+        if (readAt == null) {
+            return;
+        }
+        LocalDateTime start = LocalDateTime.now();
+        Collection<ItemSearchDto> written = reader.apply(readAt.minus(refreshOverlap));
+        write(target -> written.forEach(item -> {
+            target.delete(item.getId());
+            target.add(item);
+        }));
+        readAt = start;
+    }
+
+    /**
+     * Adds the item to the index or replaces its previous version.
+     */
+    public void put(ItemSearchDto item) {
+        write(target -> {
+            target.delete(item.getId());
+            target.add(item);
+        });
+    }
+
+    public void remove(Long id) {
+        write(target -> target.delete(id));
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        write(target -> ids.forEach(target::delete));
+    }
+
+    public void removeByOwner(Long ownerId) {
+        write(target -> target.deleteByOwner(ownerId));
+    }
+
+    /**
+     * Ids of the best ranked available items matching the text, the most relevant first.
+     */
+    public List<Long> search(String text) {
+        Set<String> queryTerms = new LinkedHashSet<>();
+        tokenize(text).forEach(t -> queryTerms.add(stem(t)));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : queryTerms) {
+                Map<Long, Double> termScores = postings.score(term);
+                if (scores != null) {
+                    Map<Long, Double> previous = scores;
+                    termScores.keySet().retainAll(previous.keySet());
+                    termScores.replaceAll((id, score) -> score + previous.get(id));
+                }
+                scores = termScores;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            // the worst ranked of the best ones kept is on top, so that it is the one replaced
+            PriorityQueue<Map.Entry<Long, Double>> best = new PriorityQueue<>(maxResults + 1, RANKING.reversed());
+            for (Map.Entry<Long, Double> score : scores.entrySet()) {
+                best.add(score);
+                if (best.size() > maxResults) {
+                    best.poll();
+                }
+            }
+            return best.stream()
+                    .sorted(RANKING)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Consumer<Postings> write) {
+        lock.writeLock().lock();
+        try {
+            write.accept(postings);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(SEPARATOR.split(text.toLowerCase(Locale.ROOT).replace('ё', 'е')))
+                .filter(t -> !t.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static String stem(String term) {
+        return ENDINGS.stream()
+                .filter(e -> term.endsWith(e) && term.length() - e.length() >= MIN_STEM_LENGTH)
+                .max(Comparator.comparingInt(String::length))
+                .map(e -> term.substring(0, term.length() - e.length()))
+                .orElse(term);
+    }
+
+    private static class Postings {
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        private final TreeMap<String, Map<Long, Integer>> terms = new TreeMap<>();
+
+        private long totalLength;
+
+        Map<Long, Double> score(String prefix) {
+            Map<Long, Double> scores = new HashMap<>();
+            int count = documents.size();
+            double averageLength = count == 0 ? 1 : (double) totalLength / count;
+            terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().forEach(posting -> {
+                int frequency = posting.size();
+                double idf = Math.log(1 + (count - frequency + 0.5) / (frequency + 0.5));
+                posting.forEach((id, tf) -> {
+                    Document document = documents.get(id);
+                    if (Boolean.TRUE.equals(document.item.getAvailable())) {
+                        double norm = K1 * (1 - B + B * document.length / averageLength);
+                        scores.merge(id, idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                    }
+                });
+            });
+            return scores;
+        }
+
+        void add(ItemSearchDto item) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            tokenize(item.getName()).forEach(t -> frequencies.merge(t, 1, Integer::sum));
+            tokenize(item.getDescription()).forEach(t -> frequencies.merge(t, 1, Integer::sum));
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+            documents.put(item.getId(), new Document(item, frequencies.keySet(), length));
+            frequencies.forEach((term, tf) -> terms.computeIfAbsent(term, t -> new HashMap<>()).put(item.getId(), tf));
+            totalLength += length;
+        }
+
+        void delete(Long id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms) {
+                Map<Long, Integer> posting = terms.get(term);
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    terms.remove(term);
+                }
+            }
+            totalLength -= document.length;
+        }
+
+        void deleteByOwner(Long ownerId) {
+            documents.values().stream()
+                    .filter(d -> ownerId.equals(d.item.getOwnerId()))
+                    .map(d -> d.item.getId())
+                    .collect(Collectors.toList())
+                    .forEach(this::delete);
+        }
+    }
+
+    private static class Document {
+        private final ItemSearchDto item;
+
+        private final Collection<String> terms;
+
+        private final int length;
+
+        Document(ItemSearchDto item, Collection<String> terms, int length) {
+            this.item = item;
+            this.terms = new ArrayList<>(terms);
+            this.length = length;
+        }
+    }
+}
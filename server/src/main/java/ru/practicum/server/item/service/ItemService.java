@@ -2,9 +2,12 @@ package ru.practicum.server.item.service;
 
 import ru.practicum.server.item.dto.CommentDto;
 import ru.practicum.server.item.dto.CommentShortDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
 import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.item.dto.ItemShortDto;
+import ru.practicum.server.util.BatchResultDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -14,6 +17,8 @@ public interface ItemService {
 
     ItemDto create(ItemShortDto itemShortDto, Long userId);
 
+    List<BatchResultDto<ItemDto>> createAll(List<ItemShortDto> itemShortDtos, Long userId);
+
     ItemDto update(ItemShortDto itemShortDto, Long id, Long userId);
 
     void delete(Long id);
@@ -21,4 +26,6 @@ public interface ItemService {
     List<ItemDto> search(String text);
 
     CommentDto createComment(Long itemId, Long userId, CommentShortDto commentShortDto);
+
+    ItemAvailabilityDto getAvailability(Long id, LocalDateTime start, LocalDateTime end);
 }
\ No newline at end of file
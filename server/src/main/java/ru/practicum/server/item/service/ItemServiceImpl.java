@@ -1,40 +1,54 @@
 package ru.practicum.server.item.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.server.booking.dto.BookingForItemDto;
-import ru.practicum.server.booking.dto.BookingMapper;
-import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.dto.BookingPeriodDto;
+import ru.practicum.server.booking.model.ItemBookingSummary;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingAvailabilityIndex;
+import ru.practicum.server.booking.service.ItemBookingSummaries;
 import ru.practicum.server.exception.BadRequestException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.CommentForItemDto;
 import ru.practicum.server.item.dto.CommentMapper;
 import ru.practicum.server.item.dto.CommentShortDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
 import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.item.dto.ItemMapper;
+import ru.practicum.server.item.dto.ItemSearchDto;
 import ru.practicum.server.item.dto.ItemShortDto;
 import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.CommentRepository;
 import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.request.model.ItemRequest;
 import ru.practicum.server.request.repository.ItemRequestRepository;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.util.BatchResultDto;
+import ru.practicum.server.util.MetricsConfig;
+import ru.practicum.server.util.ResourceVersions;
+import ru.practicum.server.util.TransactionHooks;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.time.LocalDateTime.now;
 import static java.util.stream.Collectors.toList;
-import static org.springframework.data.domain.Sort.Direction.DESC;
 import static ru.practicum.server.booking.model.BookingStatus.APPROVED;
 import static ru.practicum.server.item.dto.CommentMapper.toComment;
 import static ru.practicum.server.item.dto.CommentMapper.toCommentDto;
@@ -42,6 +56,7 @@ import static ru.practicum.server.item.dto.ItemMapper.toItem;
 import static ru.practicum.server.item.dto.ItemMapper.toItemDto;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
@@ -55,14 +70,19 @@ public class ItemServiceImpl implements ItemService {
 
     private final ItemRequestRepository itemRequestRepository;
 
+    private final BookingAvailabilityIndex availabilityIndex;
+
+    private final ItemSearchIndex searchIndex;
+
+    private final ItemCache itemCache;
+
+    private final ItemBookingSummaries bookingSummaries;
+
+    private final ResourceVersions resourceVersions;
+
     @Override
     public List<ItemDto> getAll(Long userId) {
-        Sort sort = Sort.by(Sort.Direction.ASC, "id");
-        List<Item> items = itemRepository.findAllByOwnerId(userId, sort);
-
-        List<ItemDto> itemDtoList = items.stream()
-                .map(ItemMapper::toItemDto)
-                .collect(toList());
+        List<ItemDto> itemDtoList = itemRepository.findAllByOwnerId(userId);
         //получаем id элементов для загрузки комментов
         List<Long> idItems = itemDtoList.stream()
                 .map(ItemDto::getId)
@@ -70,10 +90,11 @@ public class ItemServiceImpl implements ItemService {
         //загружаем бронирования
         getAllBookingsByItem(itemDtoList, idItems);
 
-        Map<Long, List<CommentDto>> comments = commentRepository.findByItemIdIn(idItems, Sort.by(DESC, "created"))
+        Map<Long, List<CommentDto>> comments = idItems.isEmpty() ? Map.of() : commentRepository
+                .findAllByItemIdIn(idItems)
                 .stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.groupingBy(CommentDto::getId));
+                .collect(Collectors.groupingBy(CommentForItemDto::getItemId,
+                        Collectors.mapping(CommentMapper::toCommentDto, toList())));
 
         itemDtoList.forEach(i -> i.setComments(comments.getOrDefault(i.getId(), Collections.emptyList())));
 
@@ -82,17 +103,18 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemDto getById(Long id, Long ownerId) {
-        Item item = itemRepository.findById(id)
+        long version = resourceVersions.version(ResourceVersions.item(id))
                 .orElseThrow(() -> new NotFoundException("Not Found Item with Id: " + id));
-        List<ItemDto> itemDtoList = new ArrayList<>();
-        itemDtoList.add(toItemDto(item));
-        if (item.getOwner().getId().equals(ownerId)) {
-            List<Long> idItems = itemDtoList.stream().map(ItemDto::getId).collect(Collectors.toList());
-            getAllBookingsByItem(itemDtoList, idItems);
+        ItemCache.Entry entry = itemCache.get(id, version, key -> loadForCache(key, version));
+        ItemDto itemDto = entry.toItemDto();
+        if (entry.getOwnerId().equals(ownerId)) {
+            if (!entry.hasBookingsAt(LocalDateTime.now())) {
+                getAllBookingsByItem(List.of(itemDto), List.of(id));
+                entry = itemCache.putBookings(id, entry, itemDto.getLastBooking(), itemDto.getNextBooking());
+            }
+            itemDto.setLastBooking(entry.getLastBooking());
+            itemDto.setNextBooking(entry.getNextBooking());
         }
-        ItemDto itemDto = itemDtoList.get(0);
-        itemDto.setComments(commentRepository.findAllByItemId(id)
-                .stream().map(CommentMapper::toCommentDto).collect(toList()));
 
         return itemDto;
     }
@@ -112,10 +134,52 @@ public class ItemServiceImpl implements ItemService {
                     .orElseThrow(() -> new NotFoundException("Not found Request with Id:" + requestId)));
         }
         itemRepository.save(item);
+        bookingSummaries.create(List.of(item.getId()));
+        indexForSearch(item);
+        itemsChanged(userId, requestId != null);
 
         return toItemDto(item);
     }
 
+    @Transactional
+    @Override
+    public List<BatchResultDto<ItemDto>> createAll(List<ItemShortDto> itemShortDtos, Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new NotFoundException("Not possible create Items - " +
+                        "Not Found User with Id: " + userId));
+        Set<Long> requestIds = itemShortDtos.stream()
+                .map(ItemShortDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Map.of() : itemRequestRepository
+                .findAllById(requestIds)
+                .stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+        Map<Integer, Item> items = new LinkedHashMap<>();
+        for (int i = 0; i < itemShortDtos.size(); i++) {
+            ItemShortDto itemShortDto = itemShortDtos.get(i);
+            Long requestId = itemShortDto.getRequestId();
+            if (requestId == null || requests.containsKey(requestId)) {
+                Item item = toItem(itemShortDto);
+                item.setOwner(user);
+                item.setRequest(requestId == null ? null : requests.get(requestId));
+                items.put(i, item);
+            }
+        }
+        itemRepository.saveAll(items.values());
+        bookingSummaries.create(items.values().stream().map(Item::getId).collect(toList()));
+        items.values().forEach(this::indexForSearch);
+        itemsChanged(userId, items.values().stream().anyMatch(item -> item.getRequest() != null));
+
+        return IntStream.range(0, itemShortDtos.size())
+                .mapToObj(i -> items.containsKey(i)
+                        ? BatchResultDto.created(i, toItemDto(items.get(i)))
+                        : BatchResultDto.<ItemDto>failed(i, "Not found Request with Id:" +
+                                itemShortDtos.get(i).getRequestId()))
+                .collect(toList());
+    }
+
     @Transactional
     @Override
     public ItemDto update(ItemShortDto itemShortDto, Long id, Long userId) {
@@ -125,7 +189,9 @@ public class ItemServiceImpl implements ItemService {
             throw new NotFoundException("Not possible to update the Item from the User with Id: " +
                     userId + "There is no such Item");
         }
+        boolean renamed = false;
         if (itemShortDto.getName() != null && !itemShortDto.getName().isBlank()) {
+            renamed = !itemShortDto.getName().equals(item.getName());
             item.setName(itemShortDto.getName());
         }
         if (itemShortDto.getDescription() != null && !itemShortDto.getDescription().isBlank()) {
@@ -135,20 +201,55 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(itemShortDto.getAvailable());
         }
 
-        return toItemDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        indexForSearch(saved);
+        itemCache.invalidate(id);
+        if (renamed) {
+            // bookings are shown with the item name
+            resourceVersions.changedItemViews(id);
+        } else {
+            resourceVersions.changed(ResourceVersions.item(id));
+            itemsChanged(userId, saved.getRequest() != null);
+        }
+
+        return toItemDto(saved);
     }
 
     @Transactional
     @Override
     public void delete(Long id) {
+        // bookings and comments of the item are removed by the ON DELETE CASCADE of the item reference
+        resourceVersions.changedItemViews(id);
         itemRepository.deleteById(id);
+        itemCache.invalidate(id);
+        TransactionHooks.afterCommit(() -> {
+            searchIndex.remove(id);
+            availabilityIndex.remove(id);
+        });
     }
 
+    /**
+     * The index picks and ranks the items, their current state is read from the database, so that items
+     * changed or deleted by another instance are not shown as the index has kept them. Items the database
+     * no longer returns are dropped from the index until they are written again.
+     */
     @Override
     public List<ItemDto> search(String text) {
-        Boolean available = true;
-        return itemRepository.findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAndAvailable(text,
-                text, available).stream().map(ItemMapper::toItemDto).collect(toList());
+        List<Long> ids = searchIndex.search(text);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemDto> found = itemRepository.findAllAvailableByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
+        if (found.size() < ids.size()) {
+            searchIndex.removeAll(ids.stream()
+                    .filter(id -> !found.containsKey(id))
+                    .collect(toList()));
+        }
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(toList());
     }
 
     @Transactional
@@ -160,8 +261,7 @@ public class ItemServiceImpl implements ItemService {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new NotFoundException("Not possible create Comment - " +
                         "Does not exist Item with Id " + itemId));
-        if (bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(userId, itemId, APPROVED,
-                now()).isEmpty()) {
+        if (!bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(userId, itemId, APPROVED, now())) {
             throw new BadRequestException("Not possible create Comment - " +
                     "Item has not been rented by the user or the rental of the item has not yet been completed");
         }
@@ -170,24 +270,76 @@ public class ItemServiceImpl implements ItemService {
         comment.setAuthor(user);
         comment.setCreated(now());
         commentRepository.save(comment);
+        itemCache.invalidate(itemId);
+        resourceVersions.changed(ResourceVersions.item(itemId), ResourceVersions.ownerItems(item.getOwner().getId()));
 
         return toCommentDto(comment);
     }
 
-    private void getAllBookingsByItem(List<ItemDto> itemDtoList,  List<Long> idItems) {
-        Map<Long, BookingForItemDto> lastBookings = bookingRepository.findFirstByItemIdInAndStartLessThanEqualAndStatus(
-                        idItems, LocalDateTime.now(), BookingStatus.APPROVED, Sort.by(Sort.Direction.DESC, "start"))
-                .stream()
-                .map(BookingMapper::toBookingForItemDto)
-                .collect(Collectors.toMap(BookingForItemDto::getItemId, Function.identity()));
-        itemDtoList.forEach(i -> i.setLastBooking(lastBookings.get(i.getId())));
+    @Override
+    public ItemAvailabilityDto getAvailability(Long id, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("The start of the period must be earlier than its end");
+        }
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Not Found Item with Id: " + id));
+        List<BookingPeriodDto> busy = availabilityIndex.getBusyPeriods(id, start, end);
 
-        Map<Long, BookingForItemDto> nextBookings = bookingRepository.findFirstByItemIdInAndStartAfterAndStatus(
-                        idItems, LocalDateTime.now(), BookingStatus.APPROVED, Sort.by(Sort.Direction.ASC, "start"))
-                .stream()
-                .map(BookingMapper::toBookingForItemDto)
-                .collect(Collectors.toMap(BookingForItemDto::getItemId, Function.identity()));
-        itemDtoList.forEach(i -> i.setNextBooking(nextBookings.get(i.getId())));
+        return ItemAvailabilityDto.builder()
+                .itemId(id)
+                .start(start)
+                .end(end)
+                .available(item.getAvailable() && busy.isEmpty())
+                .busy(busy)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSearchIndex() {
+        searchIndex.load(itemRepository::findAllForSearch);
+    }
+
+    /**
+     * Puts the items written since the previous read into the search index, with the delay
+     * shareit.search-index.refresh-interval, to pick up the items written by other instances.
+     */
+    @Scheduled(fixedDelayString = "${shareit.search-index.refresh-interval:PT1M}",
+            initialDelayString = "${shareit.search-index.refresh-interval:PT1M}")
+    public void refreshSearchIndex() {
+        searchIndex.refresh(itemRepository::findAllForSearchUpdatedAfter);
+    }
+
+    private ItemCache.Entry loadForCache(Long id, long version) {
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Not Found Item with Id: " + id));
+        List<CommentDto> comments = commentRepository.findAllByItemId(id)
+                .stream().map(CommentMapper::toCommentDto).collect(toList());
+        return new ItemCache.Entry(version, item.getOwner().getId(), toItemDto(item), comments);
+    }
+
+    private void itemsChanged(Long ownerId, boolean requested) {
+        if (requested) {
+            resourceVersions.changed(ResourceVersions.ownerItems(ownerId), ResourceVersions.REQUESTS);
+        } else {
+            resourceVersions.changed(ResourceVersions.ownerItems(ownerId));
+        }
+    }
+
+    private void indexForSearch(Item item) {
+        ItemSearchDto indexed = ItemMapper.toItemSearchDto(item);
+        TransactionHooks.afterCommit(() -> searchIndex.put(indexed));
+    }
+
+    private void getAllBookingsByItem(List<ItemDto> itemDtoList,  List<Long> idItems) {
+        if (idItems.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemBookingSummary> summaries = bookingSummaries.get(idItems, LocalDateTime.now());
 
+        itemDtoList.forEach(i -> {
+            ItemBookingSummary summary = summaries.get(i.getId());
+            i.setLastBooking(summary == null ? null : summary.getLastBooking());
+            i.setNextBooking(summary == null ? null : summary.getNextBooking());
+        });
     }
 }
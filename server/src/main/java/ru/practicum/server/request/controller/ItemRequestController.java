@@ -13,9 +13,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.server.request.dto.ItemRequestDto;
 import ru.practicum.server.request.dto.ItemRequestDtoShort;
 import ru.practicum.server.request.service.ItemRequestService;
+import ru.practicum.server.util.ResourceVersions;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -31,34 +33,43 @@ public class ItemRequestController {
 
     private final ItemRequestService itemRequestService;
 
+    private final ResourceVersions resourceVersions;
+
     @GetMapping("/{requestId}")
     @ResponseStatus(HttpStatus.OK)
     public ItemRequestDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
                                   @PathVariable Long requestId) {
-        log.info("GET /requests/ request received with parameters: requestId = {}.", requestId);
+        log.debug("GET /requests/ request received with parameters: requestId = {}.", requestId);
         return itemRequestService.getById(userId, requestId);
     }
 
     @GetMapping("/all")
     public List<ItemRequestDto> getAll(@RequestHeader("X-Sharer-User-Id") Long userId,
                                        @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
-                                       @Positive @RequestParam(defaultValue = "10") Integer size) {
-        log.info("GET /all request received with parameters: from = {}, size = {}", from, size);
-        return itemRequestService.getAll(userId, from, size);
+                                       @Positive @RequestParam(defaultValue = "10") Integer size,
+                                       WebRequest request) {
+        log.debug("GET /all request received with parameters: from = {}, size = {}", from, size);
+        ResourceVersions.Tag tag = resourceVersions.tag(ResourceVersions.REQUESTS, userId);
+        if (tag.checkNotModified(request)) {
+            return null;
+        }
+        List<ItemRequestDto> requests = itemRequestService.getAll(userId, from, size);
+        tag.setEtag(request, null);
+        return requests;
     }
 
     @GetMapping
     public List<ItemRequestDto> getAllByRequester(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                   @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
                                                   @Positive @RequestParam(defaultValue = "10") Integer size) {
-        log.info("GET /requests request received with parameters: from = {}, size = {}", from, size);
+        log.debug("GET /requests request received with parameters: from = {}, size = {}", from, size);
         return itemRequestService.getAllByRequester(userId, from, size);
     }
 
     @PostMapping
     public ItemRequestDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
                                  @Valid @RequestBody ItemRequestDtoShort itemRequestDto) {
-        log.info("POST /requests received with parameters: itemRequestDto = {}", itemRequestDto);
+        log.debug("POST /requests received with parameters: itemRequestDto = {}", itemRequestDto);
         return itemRequestService.create(userId, itemRequestDto);
     }
 }
\ No newline at end of file
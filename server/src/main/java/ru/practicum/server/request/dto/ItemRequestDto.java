@@ -1,5 +1,6 @@
 package ru.practicum.server.request.dto;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -12,7 +13,7 @@ import java.util.List;
 
 @Getter
 @Setter
-@AllArgsConstructor
+@AllArgsConstructor(onConstructor_ = @JsonCreator)
 @Builder
 @EqualsAndHashCode
 public class ItemRequestDto {
@@ -25,4 +26,11 @@ public class ItemRequestDto {
     private LocalDateTime created;
 
     private List<ItemDto> items;
+
+    /**
+     * Constructor used by JPQL projections, items are filled in by the service.
+     */
+    public ItemRequestDto(Long id, String description, Long requesterId, LocalDateTime created) {
+        this(id, description, requesterId, created, List.of());
+    }
 }
\ No newline at end of file
@@ -3,14 +3,23 @@ package ru.practicum.server.request.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.server.request.dto.ItemRequestDto;
 import ru.practicum.server.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    @Query("select i from ItemRequest i " +
-            "where i.requester.id <> ?1 ")
-    List<ItemRequest> findAllByRequesterIdNot(Long userId, Pageable pageable);
+    String ITEM_REQUEST_DTO = "select new ru.practicum.server.request.dto.ItemRequestDto(i.id, i.description, " +
+            "i.requester.id, i.created) " +
+            "from ItemRequest i ";
 
-    List<ItemRequest> findAllByRequesterId(Long userId, Pageable pageable);
-}
\ No newline at end of file
+    @Query(ITEM_REQUEST_DTO + "where i.id = ?1")
+    Optional<ItemRequestDto> findDtoById(Long requestId);
+
+    @Query(ITEM_REQUEST_DTO + "where i.requester.id <> ?1 ")
+    List<ItemRequestDto> findAllByRequesterIdNot(Long userId, Pageable pageable);
+
+    @Query(ITEM_REQUEST_DTO + "where i.requester.id = ?1 ")
+    List<ItemRequestDto> findAllByRequesterId(Long userId, Pageable pageable);
+}
@@ -1,5 +1,6 @@
 package ru.practicum.server.request.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -8,8 +9,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.item.dto.ItemDto;
-import ru.practicum.server.item.dto.ItemMapper;
-import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.ItemRepository;
 import ru.practicum.server.request.dto.ItemRequestDto;
 import ru.practicum.server.request.dto.ItemRequestDtoShort;
@@ -18,8 +17,9 @@ import ru.practicum.server.request.model.ItemRequest;
 import ru.practicum.server.request.repository.ItemRequestRepository;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.util.MetricsConfig;
+import ru.practicum.server.util.ResourceVersions;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -28,6 +28,7 @@ import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserRepository userRepository;
@@ -36,6 +37,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
 
+    private final ResourceVersions resourceVersions;
+
     @Transactional
     @Override
     public ItemRequestDto create(Long userId, ItemRequestDtoShort itemRequestDtoShort) {
@@ -49,6 +52,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         // Сохраняем объект запроса
         itemRequestRepository.save(itemRequest);
+        resourceVersions.changed(ResourceVersions.REQUESTS);
 
         // Возвращаем DTO созданного запроса
         return ItemRequestMapper.toDto(itemRequest);
@@ -60,13 +64,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
             throw new NotFoundException("Not found User with Id:" + userId);
         }
 
-        ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
+        ItemRequestDto itemRequestDto = itemRequestRepository.findDtoById(requestId).orElseThrow(() ->
                 new NotFoundException("Not Found Request with Id:" + requestId));
-
-        List<ItemDto>  items = new ArrayList<>(ItemMapper.toDtoShortList(itemRepository
-                .findByRequest_IdOrderById(requestId)));
-        ItemRequestDto itemRequestDto = ItemRequestMapper.toDto(itemRequest);
-        itemRequestDto.setItems(items);
+        itemRequestDto.setItems(itemRepository.findAllByRequestId(requestId));
         return itemRequestDto;
     }
 
@@ -79,7 +79,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         Pageable pageable = PageRequest.of(from / size, size,
                 Sort.by(Sort.Direction.DESC, "created"));
 
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequesterIdNot(userId, pageable);
+        List<ItemRequestDto> requests = itemRequestRepository.findAllByRequesterIdNot(userId, pageable);
         return getItemRequestsDtoWithItems(requests);
     }
 
@@ -92,32 +92,23 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         Pageable pageable = PageRequest.of(from / size, size,
                 Sort.by(Sort.Direction.DESC, "created"));
 
-        List<ItemRequest> requests = itemRequestRepository.findAllByRequesterId(userId, pageable);
+        List<ItemRequestDto> requests = itemRequestRepository.findAllByRequesterId(userId, pageable);
 
         return getItemRequestsDtoWithItems(requests);
     }
 
-    private List<ItemRequestDto> getItemRequestsDtoWithItems(List<ItemRequest> requests) {
+    private List<ItemRequestDto> getItemRequestsDtoWithItems(List<ItemRequestDto> requests) {
         List<Long> requestsId = requests.stream()
-                .map(ItemRequest::getId)
+                .map(ItemRequestDto::getId)
                 .collect(Collectors.toList());
-
-        List<Item> items = itemRepository.findByRequest_IdIn(requestsId);
-
-        Map<ItemRequest, List<Item>> itemRequestsByItem = items.stream()
-                .collect(groupingBy(Item::getRequest, toList()));
-
-        List<ItemRequestDto> itemRequestDto = new ArrayList<>();
-
-        for (ItemRequest itemRequest : requests) {
-            List<Item> itemsTemp = itemRequestsByItem.getOrDefault(itemRequest, List.of());
-
-            List<ItemDto> itemDtoForRequests = itemsTemp.stream()
-                    .map(ItemMapper::toItemDto)
-                    .collect(toList());
-            itemRequestDto.add(ItemRequestMapper.toItemRequestDto(itemRequest, itemDtoForRequests));
+        if (requestsId.isEmpty()) {
+            return requests;
         }
 
-        return itemRequestDto;
+        Map<Long, List<ItemDto>> itemsByRequest = itemRepository.findAllByRequestIdIn(requestsId).stream()
+                .collect(groupingBy(ItemDto::getRequestId, toList()));
+
+        requests.forEach(r -> r.setItems(itemsByRequest.getOrDefault(r.getId(), List.of())));
+        return requests;
     }
-}
\ No newline at end of file
+}
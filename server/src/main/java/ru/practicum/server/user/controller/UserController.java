@@ -13,45 +13,61 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.service.UserService;
+import ru.practicum.server.util.BatchResultDto;
 import ru.practicum.server.util.Create;
 import ru.practicum.server.util.Update;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
 import java.util.List;
 
 @Slf4j
 @RestController
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
+@Validated
 public class UserController {
+    public static final int BATCH_LIMIT = 1000;
+
     private final UserService userService;
 
     @GetMapping
     public List<UserDto> getAll() {
-        log.info("GET:/users request received");
+        log.debug("GET:/users request received");
         return userService.getAll();
     }
 
     @GetMapping("/{id}")
     public UserDto getById(@PathVariable Long id) {
-        log.info("GET:/users/{id} request received with parameters:id = {}", id);
+        log.debug("GET:/users/{id} request received with parameters:id = {}", id);
         return userService.getById(id);
     }
 
     @PostMapping
     public UserDto create(@Validated(Create.class) @RequestBody UserDto userDto) {
-        log.info("POST:/users request received with parameters: userDto = {}", userDto);
+        log.debug("POST:/users request received with parameters: userDto = {}", userDto);
         return userService.create(userDto);
     }
 
+    @PostMapping("/batch")
+    @Validated(Create.class)
+    public List<BatchResultDto<UserDto>> createAll(@NotEmpty(groups = Create.class)
+                                                   @Size(max = BATCH_LIMIT, groups = Create.class)
+                                                   @RequestBody List<@Valid UserDto> userDtos) {
+        log.debug("POST:/users/batch request received with {} users", userDtos.size());
+        return userService.createAll(userDtos);
+    }
+
     @PatchMapping("/{id}")
     public UserDto update(@Validated(Update.class) @RequestBody UserDto userDto, @PathVariable Long id) {
-        log.info("PATCH:/users/{id} request received with parameters: userDto = {}, id = {}", userDto, id);
+        log.debug("PATCH:/users/{id} request received with parameters: userDto = {}, id = {}", userDto, id);
         return userService.update(userDto, id);
     }
 
     @DeleteMapping("/{id}")
     public void delete(@PathVariable Long id) {
-        log.info("DELETE:/users/{id} request received with parameters: id = {}", id);
+        log.debug("DELETE:/users/{id} request received with parameters: id = {}", id);
         userService.delete(id);
     }
 }
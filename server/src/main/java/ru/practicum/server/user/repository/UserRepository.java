@@ -1,7 +1,14 @@
 package ru.practicum.server.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.server.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+}
@@ -1,6 +1,7 @@
 package ru.practicum.server.user.service;
 
 import ru.practicum.server.user.dto.UserDto;
+import ru.practicum.server.util.BatchResultDto;
 
 import java.util.List;
 
@@ -11,6 +12,8 @@ public interface UserService {
 
     UserDto create(UserDto userDto);
 
+    List<BatchResultDto<UserDto>> createAll(List<UserDto> userDtos);
+
     UserDto update(UserDto userDto, Long id);
 
     void delete(Long id);
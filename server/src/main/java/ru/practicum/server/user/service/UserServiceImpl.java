@@ -1,26 +1,49 @@
 package ru.practicum.server.user.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.booking.service.ItemBookingSummaries;
 import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.item.service.ItemCache;
+import ru.practicum.server.item.service.ItemSearchIndex;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.dto.UserMapper;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.util.BatchResultDto;
+import ru.practicum.server.util.MetricsConfig;
+import ru.practicum.server.util.ResourceVersions;
+import ru.practicum.server.util.TransactionHooks;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
 import static ru.practicum.server.user.dto.UserMapper.toUser;
 import static ru.practicum.server.user.dto.UserMapper.toUserDto;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
 
+    private final ItemSearchIndex searchIndex;
+
+    private final ItemCache itemCache;
+
+    private final ItemBookingSummaries bookingSummaries;
+
+    private final ResourceVersions resourceVersions;
+
     @Override
     public List<UserDto> getAll() {
         return userRepository.findAll().stream().map(UserMapper::toUserDto).collect(toList());
@@ -41,6 +64,31 @@ public class UserServiceImpl implements UserService {
         return toUserDto(userRepository.save(user));
     }
 
+    @Transactional
+    @Override
+    public List<BatchResultDto<UserDto>> createAll(List<UserDto> userDtos) {
+        Set<String> emails = new HashSet<>(userRepository.findEmailsIn(userDtos.stream()
+                .map(UserDto::getEmail)
+                .collect(toList())));
+        Map<Integer, User> users = new LinkedHashMap<>();
+        Map<Integer, String> errors = new HashMap<>();
+        for (int i = 0; i < userDtos.size(); i++) {
+            UserDto userDto = userDtos.get(i);
+            if (emails.add(userDto.getEmail())) {
+                users.put(i, toUser(userDto));
+            } else {
+                errors.put(i, "User with email " + userDto.getEmail() + " already exists");
+            }
+        }
+        userRepository.saveAll(users.values());
+
+        return IntStream.range(0, userDtos.size())
+                .mapToObj(i -> users.containsKey(i)
+                        ? BatchResultDto.created(i, toUserDto(users.get(i)))
+                        : BatchResultDto.<UserDto>failed(i, errors.get(i)))
+                .collect(toList());
+    }
+
     @Transactional
     @Override
     public UserDto update(UserDto userDto, Long id) {
@@ -52,6 +100,10 @@ public class UserServiceImpl implements UserService {
         }
         if (userDto.getName() != null && !userDto.getName().isBlank()) {
             updatedUser.setName(userDto.getName());
+            // cached comments carry the author name
+            itemCache.invalidateAll();
+            // as well as the comments and bookings of the polled resources
+            resourceVersions.changedUserViews(id);
         }
 
         return toUserDto(updatedUser);
@@ -60,6 +112,11 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void delete(Long id) {
+        bookingSummaries.expireByBookerId(id);
+        // items are removed by the ON DELETE CASCADE of the owner reference
+        resourceVersions.removingUserViews(id);
         userRepository.deleteById(id);
+        itemCache.invalidateAll();
+        TransactionHooks.afterCommit(() -> searchIndex.removeByOwner(id));
     }
 }
\ No newline at end of file
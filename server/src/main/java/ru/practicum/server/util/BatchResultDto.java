@@ -0,0 +1,29 @@
+package ru.practicum.server.util;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Outcome of one row of a batch request: the created object or the reason it was rejected.
+ * Results are returned in the order of the request, index is the position of the row in it.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@EqualsAndHashCode
+public class BatchResultDto<T> {
+    private final int index;
+
+    private final T result;
+
+    private final String error;
+
+    public static <T> BatchResultDto<T> created(int index, T result) {
+        return new BatchResultDto<>(index, result, null);
+    }
+
+    public static <T> BatchResultDto<T> failed(int index, String error) {
+        return new BatchResultDto<>(index, null, error);
+    }
+}
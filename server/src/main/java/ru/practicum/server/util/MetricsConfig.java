@@ -0,0 +1,21 @@
+package ru.practicum.server.util;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Records public methods of classes annotated with {@code @Timed(MetricsConfig.SERVICE_TIMER)} as one timer
+ * tagged with class, method and exception. Percentiles and histogram buckets are configured
+ * in application.properties under management.metrics.distribution.
+ */
+@Configuration
+public class MetricsConfig {
+    public static final String SERVICE_TIMER = "shareit.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.server.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes values to the response as newline-delimited JSON, one value per line.
+ * The response is opened with the first value, so an error raised before it is still answered
+ * with its own status and body. The output is flushed every {@value #FLUSH_EVERY} lines: the client
+ * receives the rows while they are being read and only one batch is buffered at a time.
+ */
+public class NdjsonWriter implements Consumer<Object> {
+    private static final int FLUSH_EVERY = 100;
+
+    private final ObjectMapper objectMapper;
+
+    private final HttpServletResponse response;
+
+    private JsonGenerator generator;
+
+    private int lines;
+
+    public NdjsonWriter(ObjectMapper objectMapper, HttpServletResponse response) {
+        this.objectMapper = objectMapper;
+        this.response = response;
+    }
+
+    @Override
+    public void accept(Object value) {
+        try {
+            if (generator == null) {
+                generator = open();
+            }
+            generator.writeObject(value);
+            if (++lines % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Terminates the last line and flushes the rest of the output.
+     */
+    public void finish() throws IOException {
+        if (generator == null) {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            return;
+        }
+        generator.writeRaw('\n');
+        generator.close();
+    }
+
+    private JsonGenerator open() throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(response.getOutputStream())
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        jsonGenerator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        return jsonGenerator;
+    }
+}
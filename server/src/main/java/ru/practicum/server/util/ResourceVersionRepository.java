@@ -0,0 +1,105 @@
+package ru.practicum.server.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toCollection;
+
+/**
+ * Reads and increments the version columns of {@link ResourceVersions} and finds the resources that show an item
+ * or a user.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ResourceVersionRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * The current version of the resource, empty if its row does not exist.
+     */
+    public Optional<Long> findVersion(ResourceVersions.Key key) {
+        Table table = Table.of(key.getKind());
+        List<Long> versions = jdbcTemplate.queryForList("SELECT " + table.column + " FROM " + table.name +
+                " WHERE " + table.key + " = :key", Map.of("key", key.getId()), Long.class);
+        return versions.stream().findFirst();
+    }
+
+    /**
+     * Increments the versions of the resources in the current transaction, one statement per kind of resource.
+     * Kinds and rows are taken in a fixed order, so concurrent writers lock them in the same order.
+     */
+    public void increment(Collection<ResourceVersions.Key> keys) {
+        keys.stream()
+                .collect(groupingBy(ResourceVersions.Key::getKind, () -> new EnumMap<>(ResourceVersions.Kind.class),
+                        mapping(ResourceVersions.Key::getId, toCollection(TreeSet::new))))
+                .forEach((kind, ids) -> {
+                    Table table = Table.of(kind);
+                    jdbcTemplate.update("UPDATE " + table.name + " SET " + table.column + " = " + table.column +
+                            " + 1 WHERE " + table.key + " IN (:keys)", Map.of("keys", ids));
+                });
+    }
+
+    public List<Long> findOwnerIds(Collection<Long> itemIds) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT id_owner FROM items WHERE id IN (:ids)",
+                Map.of("ids", itemIds), Long.class);
+    }
+
+    public List<Long> findBookerIds(Collection<Long> itemIds) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT booker_id FROM bookings WHERE item_id IN (:ids)",
+                Map.of("ids", itemIds), Long.class);
+    }
+
+    public boolean existsAnswer(Collection<Long> itemIds) {
+        return !jdbcTemplate.queryForList("SELECT id FROM items WHERE id IN (:ids) AND request_id IS NOT NULL " +
+                "LIMIT 1", Map.of("ids", itemIds), Long.class).isEmpty();
+    }
+
+    /**
+     * Items that show the user: commented on or booked by them.
+     */
+    public List<Long> findItemIdsUsedBy(Long userId) {
+        return jdbcTemplate.queryForList("SELECT item_id FROM comments WHERE author_id = :user " +
+                "UNION SELECT item_id FROM bookings WHERE booker_id = :user", Map.of("user", userId), Long.class);
+    }
+
+    /**
+     * Items removed together with the user: owned by them or answering their requests.
+     */
+    public List<Long> findItemIdsRemovedWith(Long userId) {
+        return jdbcTemplate.queryForList("SELECT id FROM items WHERE id_owner = :user " +
+                        "OR request_id IN (SELECT id FROM requests WHERE requester_id = :user)",
+                Map.of("user", userId), Long.class);
+    }
+
+    @RequiredArgsConstructor
+    private static class Table {
+        private final String name;
+
+        private final String column;
+
+        private final String key;
+
+        static Table of(ResourceVersions.Kind kind) {
+            switch (kind) {
+                case ITEM:
+                    return new Table("items", "version", "id");
+                case OWNER_ITEMS:
+                    return new Table("users", "items_version", "id");
+                case BOOKINGS:
+                    return new Table("users", "bookings_version", "id");
+                default:
+                    return new Table("resource_versions", "version", "name");
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package ru.practicum.server.util;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Versions of the resources that clients poll, used as strong ETags so that an unchanged resource is answered
+ * with 304 Not Modified before it is read. The versions are columns of the aggregates in the database: writes
+ * increment the ones they affect in their own transaction, so every instance sees a change once it is committed.
+ * The ETag carries the version and the user, as the representation depends on who asks.
+ * Views that change as time passes, e.g. the next booking of an item becoming the last one, carry the moment
+ * they stop being valid in their ETag, which no longer matches after it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResourceVersions {
+    public static final Key REQUESTS = new Key(Kind.NAMED, "requests");
+
+    private final ResourceVersionRepository repository;
+
+    public static Key item(Long itemId) {
+        return new Key(Kind.ITEM, itemId);
+    }
+
+    public static Key ownerItems(Long ownerId) {
+        return new Key(Kind.OWNER_ITEMS, ownerId);
+    }
+
+    /**
+     * Bookings of the user, both as the booker and as the owner of the items.
+     */
+    public static Key bookings(Long userId) {
+        return new Key(Kind.BOOKINGS, userId);
+    }
+
+    /**
+     * The current version of the resource, empty if it does not exist.
+     */
+    public Optional<Long> version(Key key) {
+        return repository.findVersion(key);
+    }
+
+    /**
+     * Tags the current version of the resource for the user, it must be taken before the resource is read.
+     */
+    public Tag tag(Key key, Long userId) {
+        return new Tag(version(key).orElse(null), userId);
+    }
+
+    public void changed(Key... keys) {
+        changed(List.of(keys));
+    }
+
+    /**
+     * Changes the versions of the resources that show the item, for a rename or a removal: the item, the items of
+     * its owner, the bookings of its owner and bookers and the requests if it answers one. Called before a removal,
+     * whose cascade takes the bookings with it.
+     */
+    public void changedItemViews(Long itemId) {
+        changed(itemViews(List.of(itemId)));
+    }
+
+    /**
+     * Changes the versions of the resources that show the name of the user: the items they commented on or booked,
+     * the items and bookings of the owners of those items and their own bookings.
+     */
+    public void changedUserViews(Long userId) {
+        Set<Key> keys = usedItemViews(userId);
+        keys.add(bookings(userId));
+        changed(keys);
+    }
+
+    /**
+     * Changes the versions of the resources that lose something with the user, before the cascade removes their
+     * items, requests, bookings and comments: the views of their items and of the items answering their requests,
+     * the views of the items they commented on or booked and the requests.
+     */
+    public void removingUserViews(Long userId) {
+        Set<Key> keys = usedItemViews(userId);
+        keys.addAll(itemViews(repository.findItemIdsRemovedWith(userId)));
+        keys.add(REQUESTS);
+        changed(keys);
+    }
+
+    private Set<Key> itemViews(Collection<Long> itemIds) {
+        Set<Key> keys = new HashSet<>();
+        if (itemIds.isEmpty()) {
+            return keys;
+        }
+        itemIds.forEach(id -> keys.add(item(id)));
+        List<Long> ownerIds = repository.findOwnerIds(itemIds);
+        ownerIds.forEach(id -> keys.add(ownerItems(id)));
+        ownerIds.forEach(id -> keys.add(bookings(id)));
+        repository.findBookerIds(itemIds).forEach(id -> keys.add(bookings(id)));
+        if (repository.existsAnswer(itemIds)) {
+            keys.add(REQUESTS);
+        }
+        return keys;
+    }
+
+    private Set<Key> usedItemViews(Long userId) {
+        Set<Key> keys = new HashSet<>();
+        List<Long> itemIds = repository.findItemIdsUsedBy(userId);
+        if (itemIds.isEmpty()) {
+            return keys;
+        }
+        itemIds.forEach(id -> keys.add(item(id)));
+        List<Long> ownerIds = repository.findOwnerIds(itemIds);
+        ownerIds.forEach(id -> keys.add(ownerItems(id)));
+        ownerIds.forEach(id -> keys.add(bookings(id)));
+        return keys;
+    }
+
+    private void changed(Collection<Key> keys) {
+        if (!keys.isEmpty()) {
+            repository.increment(keys);
+        }
+    }
+
+    enum Kind {
+        ITEM, OWNER_ITEMS, BOOKINGS, NAMED
+    }
+
+    @Getter(AccessLevel.PACKAGE)
+    @EqualsAndHashCode
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Key {
+        private final Kind kind;
+
+        private final Object id;
+    }
+
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Tag {
+        private final Long version;
+
+        private final Long userId;
+
+        /**
+         * Answers 304 Not Modified if the request carries an ETag of the current version that is still valid.
+         */
+        public boolean checkNotModified(WebRequest request) {
+            String[] conditions = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+            if (version == null || conditions == null) {
+                return false;
+            }
+            String prefix = "\"" + version + "-" + userId;
+            long now = toEpochSecond(LocalDateTime.now());
+            for (String condition : conditions) {
+                for (String etag : condition.split(",")) {
+                    etag = etag.trim();
+                    if ((etag.equals(prefix + "\"") || isValidAt(etag, prefix, now)) && request.checkNotModified(etag)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Sets the ETag of the view that has been read, valid until the given moment or without a limit if it is null.
+         */
+        public void setEtag(WebRequest request, LocalDateTime validUntil) {
+            if (version == null || !(request instanceof ServletWebRequest)) {
+                return;
+            }
+            HttpServletResponse response = ((ServletWebRequest) request).getResponse();
+            if (response != null) {
+                response.setHeader(HttpHeaders.ETAG, "\"" + version + "-" + userId
+                        + (validUntil == null ? "" : "-" + toEpochSecond(validUntil)) + "\"");
+            }
+        }
+
+        private static boolean isValidAt(String etag, String prefix, long now) {
+            if (!etag.startsWith(prefix + "-") || !etag.endsWith("\"")) {
+                return false;
+            }
+            try {
+                return now < Long.parseLong(etag.substring(prefix.length() + 1, etag.length() - 1));
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private static long toEpochSecond(LocalDateTime moment) {
+            return moment.toEpochSecond(ZoneOffset.UTC);
+        }
+    }
+}
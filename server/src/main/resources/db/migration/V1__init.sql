@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS users, requests, items, comments, bookings;
-
 CREATE TABLE IF NOT EXISTS users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name VARCHAR(50) NOT NULL,
@@ -45,4 +43,4 @@ CREATE TABLE IF NOT EXISTS bookings (
     booker_id BIGINT REFERENCES users(id) ON DELETE CASCADE NOT NULL,
     status VARCHAR(10),
     CONSTRAINT pk_booking PRIMARY KEY (id)
-    );
\ No newline at end of file
+    );
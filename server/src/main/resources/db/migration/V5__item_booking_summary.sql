@@ -0,0 +1,22 @@
+CREATE TABLE IF NOT EXISTS item_booking_summary (
+    item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
+    last_booking_id BIGINT,
+    last_start_date TIMESTAMP WITHOUT TIME ZONE,
+    last_end_date TIMESTAMP WITHOUT TIME ZONE,
+    last_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_start_date TIMESTAMP WITHOUT TIME ZONE,
+    next_end_date TIMESTAMP WITHOUT TIME ZONE,
+    next_booker_id BIGINT,
+    completed_bookings BIGINT DEFAULT 0 NOT NULL,
+    refresh_at TIMESTAMP WITHOUT TIME ZONE,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_item_booking_summary PRIMARY KEY (item_id)
+    );
+
+CREATE INDEX IF NOT EXISTS ix_item_booking_summary_refresh_at ON item_booking_summary (refresh_at);
+
+-- existing items are summarised by the first rollover, until then their bookings are queried as before
+INSERT INTO item_booking_summary (item_id, refresh_at)
+SELECT i.id, TIMESTAMP '1970-01-01 00:00:00' FROM items i
+WHERE NOT EXISTS (SELECT 1 FROM item_booking_summary s WHERE s.item_id = i.id);
@@ -0,0 +1,16 @@
+-- versions behind the ETags of polled resources, incremented by the writes that change them
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS items_version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS bookings_version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS resource_versions (
+    name VARCHAR(64) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_resource_versions PRIMARY KEY (name)
+    );
+
+INSERT INTO resource_versions (name)
+SELECT 'all' WHERE NOT EXISTS (SELECT 1 FROM resource_versions WHERE name = 'all');
+
+INSERT INTO resource_versions (name)
+SELECT 'requests' WHERE NOT EXISTS (SELECT 1 FROM resource_versions WHERE name = 'requests');
@@ -0,0 +1,9 @@
+-- versions are no longer read as the sum with the "all" row: it is added to every version once, so none goes back
+-- to a value an earlier ETag carried, and removed
+UPDATE items SET version = version + COALESCE((SELECT version FROM resource_versions WHERE name = 'all'), 0);
+UPDATE users SET items_version = items_version + COALESCE((SELECT version FROM resource_versions WHERE name = 'all'), 0),
+                 bookings_version = bookings_version
+                     + COALESCE((SELECT version FROM resource_versions WHERE name = 'all'), 0);
+UPDATE resource_versions SET version = version
+    + COALESCE((SELECT a.version FROM resource_versions a WHERE a.name = 'all'), 0) WHERE name <> 'all';
+DELETE FROM resource_versions WHERE name = 'all';
@@ -0,0 +1,4 @@
+-- time of the last write of an item, the search index of every instance reads the items written since its last read
+ALTER TABLE items ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+CREATE INDEX IF NOT EXISTS ix_items_updated_at ON items (updated_at);
@@ -0,0 +1,45 @@
+package ru.practicum.server;
+
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@AutoConfigureMetrics
+class MetricsTest {
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrometheusMeterRegistry registry;
+
+    @Test
+    void serviceAndRepositoryCallsShouldBeScrapedWithPercentiles() {
+        User owner = userRepository.save(new User(null, "Alex", "alex.metrics@yandex.ru"));
+
+        bookingService.getAllByOwnerId(owner.getId(), "CURRENT", 0, 10);
+
+        List<String> scrape = registry.scrape().lines().collect(Collectors.toList());
+        assertThat(scrape).anyMatch(line -> line.startsWith("shareit_service_seconds{")
+                && line.contains("method=\"getAllByOwnerId\"") && line.contains("quantile=\"0.95\""));
+        assertThat(scrape).anyMatch(line -> line.startsWith("shareit_service_seconds_bucket{")
+                && line.contains("method=\"getAllByOwnerId\""));
+        assertThat(scrape).anyMatch(line -> line.startsWith("spring_data_repository_invocations_seconds{")
+                && line.contains("method=\"findCurrentByItemOwnerId\"") && line.contains("quantile=\"0.99\""));
+    }
+}
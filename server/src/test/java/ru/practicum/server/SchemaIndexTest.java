@@ -0,0 +1,58 @@
+package ru.practicum.server;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class SchemaIndexTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationShouldCreateIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select lower(index_name) from information_schema.indexes where table_schema = 'PUBLIC'",
+                String.class);
+
+        assertThat(indexes).contains("ix_bookings_booker_start", "ix_bookings_item_status_start", "ix_items_owner",
+                "ix_items_request", "ix_comments_item_created", "ix_requests_requester_created");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "select * from bookings where booker_id = 1 order by start_date desc",
+            "select * from bookings where item_id = 1 and status = 'APPROVED' and start_date < now()",
+            "select b.* from bookings b join items i on i.id = b.item_id where i.id_owner = 1 "
+                    + "order by b.start_date desc",
+            "select * from items where id_owner = 1 order by id",
+            "select * from items where request_id = 1",
+            "select * from comments where item_id = 1 order by created",
+            "select * from requests where requester_id = 1 order by created desc"
+    })
+    void hotQueriesShouldUseIndexAccess(String query) {
+        String plan = explain(query);
+
+        assertThat(plan).doesNotContain("tablescan").containsPattern("/\\* public\\.\\w+: ");
+    }
+
+    @Test
+    void bookingsOfItemByStatusShouldUseCompositeIndex() {
+        String plan = explain("select * from bookings where item_id = 1 and status = 'APPROVED' "
+                + "and start_date < now() order by start_date");
+
+        assertThat(plan).contains("/* public.ix_bookings_item_status_start: ");
+    }
+
+    private String explain(String query) {
+        return jdbcTemplate.queryForObject("explain " + query, String.class).toLowerCase(Locale.ROOT);
+    }
+}
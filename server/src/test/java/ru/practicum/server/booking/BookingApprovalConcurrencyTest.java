@@ -0,0 +1,106 @@
+package ru.practicum.server.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.exception.BadRequestException;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Not transactional: every approval runs in its own transaction, so the test data is removed after each test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingApprovalConcurrencyTest {
+    private static final int APPROVALS = 8;
+
+    private final BookingService bookingService;
+
+    private final BookingRepository bookingRepository;
+
+    private final ItemRepository itemRepository;
+
+    private final UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(null, "Alex", "alex.concurrent@yandex.ru"));
+        booker = userRepository.save(new User(null, "Bill", "bill.concurrent@yandex.ru"));
+        item = itemRepository.save(new Item(null, "bag", "description", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        booking = bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker,
+                BookingStatus.WAITING));
+    }
+
+    @AfterEach
+    void afterEach() {
+        bookingRepository.deleteById(booking.getId());
+        itemRepository.deleteById(item.getId());
+        userRepository.deleteAllById(List.of(owner.getId(), booker.getId()));
+    }
+
+    @Test
+    void approve_concurrentApprovalsHaveExactlyOneWinner() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(APPROVALS);
+        CountDownLatch ready = new CountDownLatch(APPROVALS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<BookingStatus>> results = new ArrayList<>();
+        for (int i = 0; i < APPROVALS; i++) {
+            boolean approved = i % 2 == 0;
+            Callable<BookingStatus> approval = () -> {
+                ready.countDown();
+                go.await();
+                return bookingService.approve(booking.getId(), owner.getId(), approved).getStatus();
+            };
+            results.add(executor.submit(approval));
+        }
+        ready.await();
+        go.countDown();
+
+        List<BookingStatus> winners = new ArrayList<>();
+        int rejected = 0;
+        for (Future<BookingStatus> result : results) {
+            try {
+                winners.add(result.get());
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(BadRequestException.class);
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, winners.size());
+        assertEquals(APPROVALS - 1, rejected);
+        Booking decided = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertEquals(winners.get(0), decided.getStatus());
+        assertEquals(1L, decided.getVersion());
+    }
+}
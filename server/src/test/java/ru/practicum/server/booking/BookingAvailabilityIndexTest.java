@@ -0,0 +1,107 @@
+package ru.practicum.server.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.booking.dto.BookingPeriodDto;
+import ru.practicum.server.booking.service.BookingAvailabilityIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingAvailabilityIndexTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private BookingAvailabilityIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new BookingAvailabilityIndex();
+        index.load(List.of(
+                new BookingForItemDto(1L, base, base.plusDays(2), 1L, 2L),
+                new BookingForItemDto(2L, base.plusDays(5), base.plusDays(6), 1L, 2L),
+                new BookingForItemDto(3L, base, base.plusDays(10), 2L, 2L)));
+    }
+
+    @Test
+    void isFree_shouldDetectOverlaps() {
+        assertFalse(index.isFree(1L, base.plusDays(1), base.plusDays(3)));
+        assertFalse(index.isFree(1L, base.minusDays(1), base.plusHours(1)));
+        assertFalse(index.isFree(1L, base.minusDays(1), base.plusDays(7)));
+        assertTrue(index.isFree(1L, base.plusDays(2), base.plusDays(5)));
+        assertTrue(index.isFree(1L, base.minusDays(1), base));
+        assertTrue(index.isFree(3L, base, base.plusDays(1)));
+    }
+
+    @Test
+    void reserve_shouldMergeAdjacentPeriods() {
+        index.reserve(1L, 4L, base.plusDays(2), base.plusDays(5));
+
+        assertEquals(List.of(new BookingPeriodDto(base, base.plusDays(6))),
+                index.getBusyPeriods(1L, base.minusDays(1), base.plusDays(30)));
+    }
+
+    @Test
+    void release_shouldFreePeriod() {
+        index.release(1L, 1L);
+
+        assertTrue(index.isFree(1L, base, base.plusDays(2)));
+        assertEquals(List.of(new BookingPeriodDto(base.plusDays(5), base.plusDays(6))),
+                index.getBusyPeriods(1L, base, base.plusDays(30)));
+    }
+
+    @Test
+    void getBusyPeriods_shouldReturnPeriodsIntersectingWindow() {
+        assertEquals(List.of(new BookingPeriodDto(base, base.plusDays(2))),
+                index.getBusyPeriods(1L, base.plusDays(1), base.plusDays(4)));
+        assertEquals(List.of(), index.getBusyPeriods(1L, base.plusDays(3), base.plusDays(4)));
+    }
+
+    @Test
+    void evictEnded_shouldDropEndedBookingsAndEmptyTimelines() {
+        index.evictEnded(base.plusDays(3));
+
+        assertEquals(List.of(new BookingPeriodDto(base.plusDays(5), base.plusDays(6))),
+                index.getBusyPeriods(1L, base.minusDays(1), base.plusDays(30)));
+        assertTrue(index.isFree(1L, base, base.plusDays(2)));
+
+        index.evictEnded(base.plusDays(10));
+
+        assertEquals(List.of(), index.getBusyPeriods(1L, base.minusDays(1), base.plusDays(30)));
+        assertEquals(List.of(), index.getBusyPeriods(2L, base.minusDays(1), base.plusDays(30)));
+        index.reserve(2L, 4L, base.plusDays(11), base.plusDays(12));
+        assertFalse(index.isFree(2L, base.plusDays(11), base.plusDays(12)));
+    }
+
+    @Test
+    void reserve_shouldDropBookingsThatHaveEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        index.reserve(3L, 4L, now.minusDays(2), now.minusDays(1));
+
+        index.reserve(3L, 5L, now.plusDays(1), now.plusDays(2));
+
+        assertEquals(List.of(new BookingPeriodDto(now.plusDays(1), now.plusDays(2))),
+                index.getBusyPeriods(3L, now.minusDays(3), now.plusDays(3)));
+    }
+
+    @Test
+    void load_shouldReplaceTimelines() {
+        index.load(List.of(new BookingForItemDto(4L, base.plusDays(3), base.plusDays(4), 1L, 2L)));
+
+        assertEquals(List.of(new BookingPeriodDto(base.plusDays(3), base.plusDays(4))),
+                index.getBusyPeriods(1L, base.minusDays(1), base.plusDays(30)));
+        assertTrue(index.isFree(2L, base, base.plusDays(10)));
+    }
+
+    @Test
+    void remove_shouldDropTimelineOfDeletedItem() {
+        index.remove(1L);
+
+        assertTrue(index.isFree(1L, base, base.plusDays(10)));
+        assertEquals(List.of(), index.getBusyPeriods(1L, base.minusDays(1), base.plusDays(30)));
+        assertFalse(index.isFree(2L, base, base.plusDays(1)));
+    }
+}
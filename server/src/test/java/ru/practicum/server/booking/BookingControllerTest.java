@@ -7,23 +7,35 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.server.booking.controller.BookingController;
 import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingPageDto;
 import ru.practicum.server.booking.dto.BookingShortDto;
 import ru.practicum.server.booking.model.BookingStatus;
 import ru.practicum.server.booking.service.BookingServiceImpl;
+import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.util.ResourceVersionRepository;
+import ru.practicum.server.util.ResourceVersions;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
+@Import(ResourceVersions.class)
 @AutoConfigureMockMvc
 class BookingControllerTest {
     @Autowired
@@ -32,6 +44,8 @@ class BookingControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private BookingServiceImpl bookingService;
+    @MockBean
+    private ResourceVersionRepository resourceVersionRepository;
     private final LocalDateTime start = LocalDateTime.now().plusDays(1);
     private final LocalDateTime end = start.plusDays(2);
 
@@ -54,6 +68,44 @@ class BookingControllerTest {
         assertEquals(objectMapper.writeValueAsString(bookingDto), result);
     }
 
+    @SneakyThrows
+    @Test
+    void exportByOwner() {
+        BookingDto first = new BookingDto(1L, start, end, BookingStatus.WAITING, null, null);
+        BookingDto second = new BookingDto(2L, start, end, BookingStatus.APPROVED, null, null);
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<BookingDto> sink = invocation.getArgument(2);
+            sink.accept(first);
+            sink.accept(second);
+            return null;
+        }).when(bookingService).exportByOwnerId(Mockito.anyLong(), Mockito.any(), Mockito.any());
+
+        String result = mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "ALL"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n",
+                result);
+    }
+
+    @SneakyThrows
+    @Test
+    void exportByOwner_shouldAnswerErrorsBeforeStreaming() {
+        Mockito.doThrow(new NotFoundException("Not found User with Id:1"))
+                .when(bookingService).exportByOwnerId(Mockito.anyLong(), Mockito.any(), Mockito.any());
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
     @SneakyThrows
     @Test
     void getAllByOwner() {
@@ -76,6 +128,48 @@ class BookingControllerTest {
         assertEquals(objectMapper.writeValueAsString(List.of(bookingDto)), result);
     }
 
+    @SneakyThrows
+    @Test
+    void getAllByOwner_shouldTagOnlyStatesThatDoNotDependOnTime() {
+        Mockito.when(resourceVersionRepository.findVersion(ResourceVersions.bookings(1L)))
+                .thenReturn(Optional.of(1L));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "WAITING"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "CURRENT"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllByBooker_withCursor_shouldReturnNextCursorHeader() {
+        BookingDto bookingDto = new BookingDto(1L, start, end, BookingStatus.WAITING, null, null);
+
+        Mockito.when(bookingService.getPageByBookerId(1L, "ALL", "", 1))
+                .thenReturn(new BookingPageDto(List.of(bookingDto), "next"));
+
+        String result = mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .param("state", "ALL")
+                        .param("cursor", "")
+                        .param("size", String.valueOf(1)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, "next"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(List.of(bookingDto)), result);
+    }
+
     @SneakyThrows
     @Test
     void getAllByBooker_shouldReturnList() {
@@ -0,0 +1,110 @@
+package ru.practicum.server.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.server.booking.dto.BookingShortDto;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingAvailabilityIndex;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.exception.BadRequestException;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Not transactional: every booking is created in its own transaction, so the test data is removed after each test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingCreationConcurrencyTest {
+    private static final int BOOKINGS = 8;
+
+    private final BookingService bookingService;
+
+    private final BookingRepository bookingRepository;
+
+    private final BookingAvailabilityIndex availabilityIndex;
+
+    private final ItemRepository itemRepository;
+
+    private final UserRepository userRepository;
+
+    private User owner;
+    private final List<User> bookers = new ArrayList<>();
+    private Item item;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(null, "Alex", "alex.creation@yandex.ru"));
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookers.add(userRepository.save(new User(null, "Bill", "bill" + i + ".creation@yandex.ru")));
+        }
+        item = itemRepository.save(new Item(null, "bag", "description", true, owner, null));
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteById(item.getId());
+        availabilityIndex.remove(item.getId());
+        userRepository.deleteAll(bookers);
+        userRepository.deleteById(owner.getId());
+    }
+
+    @Test
+    void create_concurrentOverlappingBookingsHaveExactlyOneWinner() throws InterruptedException {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        ExecutorService executor = Executors.newFixedThreadPool(BOOKINGS);
+        CountDownLatch ready = new CountDownLatch(BOOKINGS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            // every period overlaps the others
+            BookingShortDto dto = new BookingShortDto(null, start.plusHours(i), start.plusDays(1).plusHours(i),
+                    item.getId());
+            Long bookerId = bookers.get(i).getId();
+            Callable<Long> creation = () -> {
+                ready.countDown();
+                go.await();
+                return bookingService.create(dto, bookerId).getId();
+            };
+            results.add(executor.submit(creation));
+        }
+        ready.await();
+        go.countDown();
+
+        List<Long> created = new ArrayList<>();
+        int rejected = 0;
+        for (Future<Long> result : results) {
+            try {
+                created.add(result.get());
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(BadRequestException.class);
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, created.size());
+        assertEquals(BOOKINGS - 1, rejected);
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(created.get(0)).orElseThrow().getStatus());
+    }
+}
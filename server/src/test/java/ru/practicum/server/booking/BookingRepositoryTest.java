@@ -0,0 +1,115 @@
+package ru.practicum.server.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class BookingRepositoryTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+    private User booker;
+    private Booking booking1;
+    private Booking booking2;
+    private Booking booking3;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @BeforeEach
+    void add() {
+        owner = userRepository.save(new User(null, "Alex", "alex.b@yandex.ru"));
+        booker = userRepository.save(new User(null, "Bill", "bill.d@yandex.ru"));
+        Item item = itemRepository.save(new Item(null, "bag", "description", true, owner, null));
+
+        booking1 = bookingRepository.save(new Booking(null, start, start.plusHours(1), item, booker,
+                BookingStatus.WAITING));
+        booking2 = bookingRepository.save(new Booking(null, start, start.plusHours(2), item, booker,
+                BookingStatus.APPROVED));
+        booking3 = bookingRepository.save(new Booking(null, start.plusDays(1), start.plusDays(2), item, booker,
+                BookingStatus.WAITING));
+    }
+
+    @Test
+    void seekAllByBookerId_shouldBreakTiesOnStartById() {
+        List<Long> firstPage = ids(bookingRepository.seekAllByBookerId(booker.getId(), booking3.getStart(),
+                booking3.getId(), PageRequest.of(0, 1)));
+        List<Long> secondPage = ids(bookingRepository.seekAllByBookerId(booker.getId(), booking2.getStart(),
+                booking2.getId(), PageRequest.of(0, 10)));
+
+        assertEquals(List.of(booking2.getId()), firstPage);
+        assertEquals(List.of(booking1.getId()), secondPage);
+    }
+
+    @Test
+    void seekByItemOwnerIdAndStatus() {
+        List<Long> result = ids(bookingRepository.seekByItemOwnerIdAndStatus(owner.getId(), booking3.getStart(),
+                booking3.getId(), BookingStatus.WAITING, PageRequest.of(0, 10)));
+
+        assertEquals(List.of(booking1.getId()), result);
+    }
+
+    @Test
+    void seekFutureByItemOwnerId_whenOtherOwner_shouldReturnEmpty() {
+        List<BookingDto> result = bookingRepository.seekFutureByItemOwnerId(booker.getId(), start.plusDays(3),
+                Long.MAX_VALUE, LocalDateTime.now(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(), result);
+    }
+
+    @Test
+    void findLastAndNextApprovedByItemIdIn_shouldReturnClosestBookingsOfEveryItem() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Item item1 = itemRepository.save(new Item(null, "table", "description", true, owner, null));
+        Item item2 = itemRepository.save(new Item(null, "chair", "description", true, owner, null));
+        bookingRepository.save(new Booking(null, now.minusDays(5), now.minusDays(4), item1, booker,
+                BookingStatus.APPROVED));
+        Booking last = bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item1, booker,
+                BookingStatus.APPROVED));
+        Booking next = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item1, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusDays(3), now.plusDays(4), item1, booker,
+                BookingStatus.APPROVED));
+        bookingRepository.save(new Booking(null, now.plusHours(1), now.plusHours(2), item1, booker,
+                BookingStatus.REJECTED));
+        Booking onlyNext = bookingRepository.save(new Booking(null, now.plusDays(1), now.plusDays(2), item2, booker,
+                BookingStatus.APPROVED));
+
+        List<BookingForItemDto> result = bookingRepository.findLastAndNextApprovedByItemIdIn(
+                List.of(item1.getId(), item2.getId()), now);
+        result.sort(Comparator.comparing(BookingForItemDto::getId));
+
+        assertEquals(List.of(toDto(last), toDto(next), toDto(onlyNext)), result);
+    }
+
+    private static BookingForItemDto toDto(Booking booking) {
+        return new BookingForItemDto(booking.getId(), booking.getStart(), booking.getEnd(),
+                booking.getItem().getId(), booking.getBooker().getId());
+    }
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).collect(Collectors.toList());
+    }
+}
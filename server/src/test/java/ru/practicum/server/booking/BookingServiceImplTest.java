@@ -8,29 +8,41 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.booking.dto.BookingCursor;
 import ru.practicum.server.booking.dto.BookingDto;
 import ru.practicum.server.booking.dto.BookingMapper;
+import ru.practicum.server.booking.dto.BookingPageDto;
 import ru.practicum.server.booking.dto.BookingShortDto;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingState;
 import ru.practicum.server.booking.model.BookingStatus;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingAvailabilityIndex;
 import ru.practicum.server.booking.service.BookingServiceImpl;
+import ru.practicum.server.booking.service.ItemBookingSummaries;
 import ru.practicum.server.exception.BadRequestException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.exception.ValidationException;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemCache;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.util.ResourceVersions;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DisplayName("JUnit 5 Nested")
@@ -45,10 +57,22 @@ class BookingServiceImplTest {
     private UserRepository userRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Spy
+    private BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex();
+    @Spy
+    private ItemCache itemCache = new ItemCache(100, Duration.ofMinutes(1));
+    @Mock
+    private ItemBookingSummaries bookingSummaries;
+    @Mock
+    private ResourceVersions resourceVersions;
+    @Spy
+    private TransactionTemplate transactionTemplate =
+            new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class));
     private User user1;
     private User user2;
     private Item item;
     private Booking booking;
+    private BookingDto bookingDto;
     private final LocalDateTime start = LocalDateTime.now();
     private final LocalDateTime end = LocalDateTime.now().plusDays(1);
 
@@ -59,6 +83,7 @@ class BookingServiceImplTest {
         item = new Item(1L, "bag", "description", true, user1,
                 null);
         booking = new Booking(1L, start, end, item, user1, BookingStatus.WAITING);
+        bookingDto = BookingMapper.toBookingDto(booking);
     }
 
     @Nested
@@ -113,7 +138,7 @@ class BookingServiceImplTest {
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
             Mockito.when(bookingRepository.findAllByItemOwnerId(Mockito.anyLong(), Mockito.any()))
-                    .thenReturn(List.of(booking));
+                    .thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByOwnerId(userId, state, 0, 10);
 
@@ -126,8 +151,8 @@ class BookingServiceImplTest {
             String state = String.valueOf(BookingState.CURRENT);
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-            Mockito.when(bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfter(Mockito.anyLong(), Mockito.any(),
-                    Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
+            Mockito.when(bookingRepository.findCurrentByItemOwnerId(Mockito.anyLong(), Mockito.any(),
+                    Mockito.any())).thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByOwnerId(userId, state, 0, 10);
 
@@ -140,8 +165,8 @@ class BookingServiceImplTest {
             String state = String.valueOf(BookingState.PAST);
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-            Mockito.when(bookingRepository.findAllByItemOwnerIdAndEndBefore(Mockito.anyLong(), Mockito.any(),
-                    Mockito.any())).thenReturn(List.of(booking));
+            Mockito.when(bookingRepository.findPastByItemOwnerId(Mockito.anyLong(), Mockito.any(),
+                    Mockito.any())).thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByOwnerId(userId, state, 0, 10);
 
@@ -154,8 +179,8 @@ class BookingServiceImplTest {
             String state = String.valueOf(BookingState.FUTURE);
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-            Mockito.when(bookingRepository.findAllByItemOwnerIdAndStartAfter(Mockito.anyLong(), Mockito.any(),
-                    Mockito.any())).thenReturn(List.of(booking));
+            Mockito.when(bookingRepository.findFutureByItemOwnerId(Mockito.anyLong(), Mockito.any(),
+                    Mockito.any())).thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByOwnerId(userId, state, 0, 10);
 
@@ -169,7 +194,7 @@ class BookingServiceImplTest {
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
             Mockito.when(bookingRepository.findAllByItemOwnerIdAndStatus(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                    .thenReturn(List.of(booking));
+                    .thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByOwnerId(userId, state, 0, 10);
 
@@ -183,7 +208,7 @@ class BookingServiceImplTest {
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
             Mockito.when(bookingRepository.findAllByItemOwnerIdAndStatus(Mockito.anyLong(), Mockito.any(),
-                    Mockito.any())).thenReturn(List.of(booking));
+                    Mockito.any())).thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByOwnerId(userId, state, 0, 10);
 
@@ -211,6 +236,51 @@ class BookingServiceImplTest {
         }
     }
 
+    @Nested
+    @DisplayName("Tests for the method getPageByOwnerId")
+    class GetPageByOwnerId {
+        @Test
+        void getPageByOwnerId_whenCursorIsEmpty_shouldReturnFirstPageWithNextCursor() {
+            Long userId = 1L;
+
+            Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+            Mockito.when(bookingRepository.findAllByItemOwnerId(Mockito.anyLong(), Mockito.any()))
+                    .thenReturn(List.of(bookingDto));
+
+            BookingPageDto result = bookingService.getPageByOwnerId(userId, "ALL", "", 1);
+
+            assertEquals(1, result.getBookings().size());
+            assertEquals(new BookingCursor(start, 1L), BookingCursor.decode(result.getNextCursor()));
+        }
+
+        @Test
+        void getPageByOwnerId_whenCursorIsSet_shouldSeekAfterCursor() {
+            Long userId = 1L;
+            LocalDateTime cursorStart = start.plusDays(1);
+
+            Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+            Mockito.when(bookingRepository.seekByItemOwnerIdAndStatus(Mockito.eq(userId), Mockito.eq(cursorStart),
+                    Mockito.eq(5L), Mockito.eq(BookingStatus.WAITING), Mockito.any()))
+                    .thenReturn(List.of(bookingDto));
+
+            BookingPageDto result = bookingService.getPageByOwnerId(userId, "WAITING",
+                    new BookingCursor(cursorStart, 5L).encode(), 10);
+
+            assertEquals(1, result.getBookings().size());
+            assertNull(result.getNextCursor());
+        }
+
+        @Test
+        void getPageByOwnerId_shouldThrowValidationExceptionForInvalidCursor() {
+            Long userId = 1L;
+
+            Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
+
+            assertThrows(ValidationException.class,
+                    () -> bookingService.getPageByOwnerId(userId, "ALL", "not-a-cursor", 10));
+        }
+    }
+
     @Nested
     @DisplayName("Tests for the method getAllByBookerId")
     class GetAllByBookerId {
@@ -220,7 +290,7 @@ class BookingServiceImplTest {
             String state = String.valueOf(BookingState.ALL);
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-            Mockito.when(bookingRepository.findAllByBookerId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(booking));
+            Mockito.when(bookingRepository.findAllByBookerId(Mockito.anyLong(), Mockito.any())).thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByBookerId(userId, state, 0, 10);
 
@@ -233,8 +303,8 @@ class BookingServiceImplTest {
             String state = String.valueOf(BookingState.CURRENT);
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-            Mockito.when(bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfter(Mockito.anyLong(), Mockito.any(),
-                    Mockito.any(), Mockito.any())).thenReturn(List.of(booking));
+            Mockito.when(bookingRepository.findCurrentByBookerId(Mockito.anyLong(), Mockito.any(),
+                    Mockito.any())).thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByBookerId(userId, state, 0, 10);
 
@@ -247,8 +317,8 @@ class BookingServiceImplTest {
             String state = String.valueOf(BookingState.PAST);
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-            Mockito.when(bookingRepository.findAllByBookerIdAndEndBefore(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                    .thenReturn(List.of(booking));
+            Mockito.when(bookingRepository.findPastByBookerId(Mockito.anyLong(), Mockito.any(), Mockito.any()))
+                    .thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByBookerId(userId, state, 0, 10);
 
@@ -261,8 +331,8 @@ class BookingServiceImplTest {
             String state = String.valueOf(BookingState.FUTURE);
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-            Mockito.when(bookingRepository.findAllByBookerIdAndStartAfter(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                    .thenReturn(List.of(booking));
+            Mockito.when(bookingRepository.findFutureByBookerId(Mockito.anyLong(), Mockito.any(), Mockito.any()))
+                    .thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByBookerId(userId, state, 0, 10);
 
@@ -276,7 +346,7 @@ class BookingServiceImplTest {
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
             Mockito.when(bookingRepository.findAllByBookerIdAndStatus(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                    .thenReturn(List.of(booking));
+                    .thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByBookerId(userId, state, 0, 10);
 
@@ -290,7 +360,7 @@ class BookingServiceImplTest {
 
             Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
             Mockito.when(bookingRepository.findAllByBookerIdAndStatus(Mockito.anyLong(), Mockito.any(), Mockito.any()))
-                    .thenReturn(List.of(booking));
+                    .thenReturn(List.of(bookingDto));
 
             List<BookingDto> result = bookingService.getAllByBookerId(userId, state, 0, 10);
 
@@ -325,7 +395,7 @@ class BookingServiceImplTest {
         void create_shouldSaveBooking() {
             BookingShortDto dto = new BookingShortDto(user2.getId(), start, end, item.getId());
 
-            Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+            Mockito.when(itemRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
             Mockito.when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
             Mockito.when(bookingRepository.save(Mockito.any()))
                     .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
@@ -335,6 +405,35 @@ class BookingServiceImplTest {
             assertThat(bookingdto).hasFieldOrProperty("id");
         }
 
+        @Test
+        void create_whenIndexIsStale_shouldFollowDatabase() {
+            BookingShortDto dto = new BookingShortDto(null, start, end, item.getId());
+            availabilityIndex.reserve(item.getId(), 10L, start.minusHours(1), start.plusHours(1));
+
+            Mockito.when(itemRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
+            Mockito.when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
+            Mockito.when(bookingRepository.save(Mockito.any()))
+                    .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+
+            bookingService.create(dto, user2.getId());
+
+            Mockito.verify(bookingRepository).save(Mockito.any());
+        }
+
+        @Test
+        void create_shouldReturnBadRequestExceptionWhenPeriodIsBooked() {
+            BookingShortDto dto = new BookingShortDto(null, start, end, item.getId());
+
+            Mockito.when(itemRepository.findByIdForUpdate(item.getId())).thenReturn(Optional.of(item));
+            Mockito.when(userRepository.findById(user2.getId())).thenReturn(Optional.of(user2));
+            Mockito.when(bookingRepository.existsByItemIdAndStatusInAndStartBeforeAndEndAfter(Mockito.eq(item.getId()),
+                    Mockito.any(), Mockito.eq(end), Mockito.eq(start))).thenReturn(true);
+
+            assertThrows(BadRequestException.class, () -> bookingService.create(dto, user2.getId()));
+
+            Mockito.verify(bookingRepository, Mockito.never()).save(Mockito.any());
+        }
+
         @Test
         void create_shouldReturnUserNotFoundException() {
             Long userId = 999L;
@@ -354,7 +453,7 @@ class BookingServiceImplTest {
             Long userId = 2L;
             Long itemId = 999L;
 
-            Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+            Mockito.when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.empty());
             Mockito.when(userRepository.findById(Mockito.any())).thenReturn(Optional.of(user2));
 
             BookingShortDto dto = new BookingShortDto(userId, start, end, itemId);
@@ -370,7 +469,7 @@ class BookingServiceImplTest {
             Long itemId = 1L;
             item.setAvailable(false);
 
-            Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+            Mockito.when(itemRepository.findByIdForUpdate(itemId)).thenReturn(Optional.of(item));
             Mockito.when(userRepository.findById(Mockito.any())).thenReturn(Optional.of(user2));
 
             BookingShortDto dto = new BookingShortDto(userId, start, end, itemId);
@@ -381,15 +480,74 @@ class BookingServiceImplTest {
         }
 
         @Test
-        void approve() {
-            BookingDto bookingDto = BookingMapper.toBookingDto(booking);
-            BookingDto bookingDtoTest;
+        void approve_whenAlreadyDecided_shouldReturnBadRequestException() {
+            booking.setStatus(BookingStatus.REJECTED);
 
             Mockito.when(bookingRepository.findById(Mockito.any())).thenReturn(Optional.ofNullable(booking));
-            bookingDtoTest = bookingService.approve(1L,1L, true);
+
+            assertThrows(BadRequestException.class, () -> bookingService.approve(1L, 1L, true));
+        }
+
+        @Test
+        void approve_whenNotOwner_shouldReturnNotFoundException() {
+            Mockito.when(bookingRepository.findById(Mockito.any())).thenReturn(Optional.ofNullable(booking));
+
+            assertThrows(NotFoundException.class, () -> bookingService.approve(1L, 2L, true));
+        }
+
+        @Test
+        void approve_shouldRetryAfterConcurrentModification() {
+            BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+            bookingDto.setStatus(BookingStatus.APPROVED);
+
+            Mockito.when(bookingRepository.decideIfWaiting(1L, 1L, BookingStatus.APPROVED)).thenReturn(1);
+            Mockito.when(bookingRepository.findDtoById(1L)).thenReturn(Optional.of(bookingDto));
+            Mockito.doThrow(new OptimisticLockingFailureException("summary"))
+                    .doNothing()
+                    .when(bookingSummaries).onApproved(Mockito.any());
+
+            assertThat(bookingService.approve(1L, 1L, true)).isEqualTo(bookingDto);
+            Mockito.verify(bookingRepository, Mockito.times(2)).decideIfWaiting(1L, 1L, BookingStatus.APPROVED);
+        }
+
+        @Test
+        void approve_whenDecidedBeforeRetry_shouldReturnBadRequestException() {
+            BookingDto bookingDto = BookingMapper.toBookingDto(booking);
             bookingDto.setStatus(BookingStatus.APPROVED);
+            booking.setStatus(BookingStatus.APPROVED);
+
+            Mockito.when(bookingRepository.decideIfWaiting(1L, 1L, BookingStatus.APPROVED)).thenReturn(1, 0);
+            Mockito.when(bookingRepository.findDtoById(1L)).thenReturn(Optional.of(bookingDto));
+            Mockito.doThrow(new OptimisticLockingFailureException("summary"))
+                    .when(bookingSummaries).onApproved(Mockito.any());
+            Mockito.when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+
+            assertThrows(BadRequestException.class, () -> bookingService.approve(1L, 1L, true));
+        }
+
+        @Test
+        void approve_shouldGiveUpAfterLastAttempt() {
+            BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+
+            Mockito.when(bookingRepository.decideIfWaiting(1L, 1L, BookingStatus.APPROVED)).thenReturn(1);
+            Mockito.when(bookingRepository.findDtoById(1L)).thenReturn(Optional.of(bookingDto));
+            Mockito.doThrow(new OptimisticLockingFailureException("summary"))
+                    .when(bookingSummaries).onApproved(Mockito.any());
+
+            assertThrows(OptimisticLockingFailureException.class, () -> bookingService.approve(1L, 1L, true));
+            Mockito.verify(bookingRepository, Mockito.times(3)).decideIfWaiting(1L, 1L, BookingStatus.APPROVED);
+        }
+
+        @Test
+        void approve_shouldDecideWithoutLoadingBooking() {
+            BookingDto bookingDto = BookingMapper.toBookingDto(booking);
+            bookingDto.setStatus(BookingStatus.APPROVED);
+
+            Mockito.when(bookingRepository.decideIfWaiting(1L, 1L, BookingStatus.APPROVED)).thenReturn(1);
+            Mockito.when(bookingRepository.findDtoById(1L)).thenReturn(Optional.of(bookingDto));
 
-            assertThat(bookingDtoTest).isEqualTo(bookingDto);
+            assertThat(bookingService.approve(1L, 1L, true)).isEqualTo(bookingDto);
+            Mockito.verify(bookingRepository, Mockito.never()).findById(Mockito.any());
         }
     }
 }
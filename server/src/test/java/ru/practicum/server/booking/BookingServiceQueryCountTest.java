@@ -0,0 +1,125 @@
+package ru.practicum.server.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingShortDto;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.booking.service.ItemBookingSummaries;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.support.HibernateStatistics;
+import ru.practicum.server.support.QueryCounter;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+@HibernateStatistics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class BookingServiceQueryCountTest {
+    private static final int BOOKINGS = 1000;
+
+    private final BookingService bookingService;
+
+    private final BookingRepository bookingRepository;
+
+    private final ItemRepository itemRepository;
+
+    private final UserRepository userRepository;
+
+    private final ItemBookingSummaries bookingSummaries;
+
+    private final EntityManager entityManager;
+
+    private QueryCounter queryCounter;
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void beforeEach() {
+        queryCounter = new QueryCounter(entityManager);
+        owner = userRepository.save(new User(null, "Alex", "alex.b@yandex.ru"));
+        booker = userRepository.save(new User(null, "Bill", "bill.d@yandex.ru"));
+        item = itemRepository.save(new Item(null, "bag", "description", true, owner, null));
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(new Booking(null, now.minusDays(i + 1), now.minusDays(i + 1).plusHours(1), item, booker,
+                    BookingStatus.APPROVED));
+        }
+        bookingRepository.saveAll(bookings);
+        booking = bookingRepository.save(new Booking(null, now.plusYears(1), now.plusYears(1).plusDays(1), item,
+                booker, BookingStatus.WAITING));
+        bookingSummaries.refresh(List.of(item.getId()));
+    }
+
+    @Test
+    void create() {
+        BookingShortDto dto = new BookingShortDto(null, now.plusYears(2), now.plusYears(2).plusDays(1),
+                item.getId());
+
+        // the user, the locked item, the overlap check and the insert
+        queryCounter.assertAtMost(4, () -> bookingService.create(dto, booker.getId()));
+    }
+
+    @Test
+    void approve() {
+        // the conditional update and the booking, then the locked summary of the item and its update
+        queryCounter.assertAtMost(4, () -> bookingService.approve(booking.getId(), owner.getId(), true));
+    }
+
+    @Test
+    void exportByOwnerId() {
+        List<BookingDto> exported = new ArrayList<>();
+
+        queryCounter.assertAtMost(2, () -> bookingService.exportByOwnerId(owner.getId(), "ALL", exported::add));
+
+        assertEquals(BOOKINGS + 1, exported.size());
+    }
+
+    @Test
+    void getById() {
+        queryCounter.assertAtMost(1, () -> bookingService.getById(booking.getId(), booker.getId()));
+    }
+
+    @Test
+    void getAllByOwnerId() {
+        queryCounter.assertAtMost(2, () -> bookingService.getAllByOwnerId(owner.getId(), "ALL", 500, 20));
+    }
+
+    @Test
+    void getAllByBookerId() {
+        queryCounter.assertAtMost(2, () -> bookingService.getAllByBookerId(booker.getId(), "PAST", 500, 20));
+    }
+
+    @Test
+    void getPageByOwnerId() {
+        String cursor = bookingService.getPageByOwnerId(owner.getId(), "ALL", "", 20).getNextCursor();
+
+        queryCounter.assertAtMost(2, () -> bookingService.getPageByOwnerId(owner.getId(), "ALL", cursor, 20));
+    }
+
+    @Test
+    void getPageByBookerId() {
+        String cursor = bookingService.getPageByBookerId(booker.getId(), "PAST", "", 20).getNextCursor();
+
+        queryCounter.assertAtMost(2, () -> bookingService.getPageByBookerId(booker.getId(), "PAST", cursor, 20));
+    }
+}
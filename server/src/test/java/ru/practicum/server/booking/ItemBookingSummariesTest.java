@@ -0,0 +1,102 @@
+package ru.practicum.server.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.booking.dto.BookingDto;
+import ru.practicum.server.booking.dto.BookingShortDto;
+import ru.practicum.server.booking.model.ItemBookingSummary;
+import ru.practicum.server.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.server.booking.service.BookingService;
+import ru.practicum.server.booking.service.ItemBookingSummaries;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemShortDto;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemBookingSummariesTest {
+    private final ItemBookingSummaries bookingSummaries;
+
+    private final ItemBookingSummaryRepository summaryRepository;
+
+    private final BookingService bookingService;
+
+    private final ItemService itemService;
+
+    private final UserRepository userRepository;
+
+    private User owner;
+    private User booker;
+    private ItemDto item;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(new User(null, "Alex", "alex.b@yandex.ru"));
+        booker = userRepository.save(new User(null, "Bill", "bill.d@yandex.ru"));
+        item = itemService.create(new ItemShortDto(null, "bag", "description", true, null), owner.getId());
+    }
+
+    @Test
+    void approve_shouldAddBookingToSummary() {
+        BookingDto rejected = book(start, start.plusDays(1));
+        BookingDto approved = book(start.plusDays(2), start.plusDays(3));
+
+        bookingService.approve(rejected.getId(), owner.getId(), false);
+        bookingService.approve(approved.getId(), owner.getId(), true);
+
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertNull(summary.getLastBooking());
+        assertEquals(approved.getId(), summary.getNextBookingId());
+        assertEquals(0, summary.getCompletedBookings());
+        assertEquals(approved.getStart(), summary.getRefreshAt());
+    }
+
+    @Test
+    void rollover_shouldRecomputeSummariesAsBookingsStartAndEnd() {
+        BookingDto booking = book(start, start.plusDays(1));
+        bookingService.approve(booking.getId(), owner.getId(), true);
+
+        assertEquals(1, bookingSummaries.rollover(start.plusHours(1)));
+        ItemBookingSummary summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(booking.getId(), summary.getLastBookingId());
+        assertNull(summary.getNextBooking());
+        assertEquals(booking.getEnd(), summary.getRefreshAt());
+
+        assertEquals(0, bookingSummaries.rollover(start.plusHours(2)));
+        assertEquals(1, bookingSummaries.rollover(start.plusDays(2)));
+        summary = summaryRepository.findById(item.getId()).orElseThrow();
+        assertEquals(1, summary.getCompletedBookings());
+        assertNull(summary.getRefreshAt());
+    }
+
+    @Test
+    void get_shouldComputeStaleSummaryFromBookings() {
+        BookingDto booking = book(start, start.plusDays(1));
+        bookingService.approve(booking.getId(), owner.getId(), true);
+
+        ItemBookingSummary summary = bookingSummaries.get(List.of(item.getId()), start.plusHours(1))
+                .get(item.getId());
+
+        assertEquals(booking.getId(), summary.getLastBookingId());
+        assertNull(summary.getNextBooking());
+        assertEquals(booking.getId(), summaryRepository.findById(item.getId()).orElseThrow().getNextBookingId());
+    }
+
+    private BookingDto book(LocalDateTime from, LocalDateTime to) {
+        return bookingService.create(new BookingShortDto(null, from, to, item.getId()), booker.getId());
+    }
+}
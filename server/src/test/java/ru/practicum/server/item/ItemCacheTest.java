@@ -0,0 +1,115 @@
+package ru.practicum.server.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.booking.dto.BookingForItemDto;
+import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.service.ItemCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemCacheTest {
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private ItemCache cache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void beforeEach() {
+        cache = new ItemCache(100, Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_shouldLoadOnce() {
+        ItemCache.Entry first = cache.get(1L, 1L, this::load);
+        ItemCache.Entry second = cache.get(1L, 1L, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_whenVersionIsNewer_shouldReloadEntry() {
+        ItemCache.Entry first = cache.get(1L, 1L, this::load);
+        ItemCache.Entry second = cache.get(1L, 2L, id -> load(id, 2L));
+
+        assertNotSame(first, second);
+        assertEquals(2L, second.getVersion());
+        assertSame(second, cache.get(1L, 2L, this::load));
+        // an older version read before a concurrent reload is served by the newer entry
+        assertSame(second, cache.get(1L, 1L, this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_shouldReloadEntry() {
+        cache.get(1L, 1L, this::load);
+        cache.invalidate(1L);
+        cache.get(1L, 1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void toItemDto_shouldReturnIndependentCopy() {
+        ItemCache.Entry entry = cache.get(1L, 1L, this::load);
+        ItemDto itemDto = entry.toItemDto();
+        itemDto.getComments().clear();
+        itemDto.setName("changed");
+
+        ItemDto another = entry.toItemDto();
+        assertNotSame(itemDto, another);
+        assertEquals("item", another.getName());
+        assertEquals(1, another.getComments().size());
+    }
+
+    @Test
+    void hasBookingsAt_shouldBeValidUntilNextBookingStarts() {
+        ItemCache.Entry entry = cache.get(1L, 1L, this::load);
+        assertFalse(entry.hasBookingsAt(now));
+
+        BookingForItemDto next = new BookingForItemDto(2L, now.plusHours(1), now.plusHours(2), 1L, 2L);
+        ItemCache.Entry withBookings = cache.putBookings(1L, entry, null, next);
+
+        assertTrue(withBookings.hasBookingsAt(now));
+        assertFalse(withBookings.hasBookingsAt(now.plusHours(1)));
+        assertSame(withBookings, cache.get(1L, 1L, this::load));
+    }
+
+    @Test
+    void putBookings_shouldNotRestoreInvalidatedEntry() {
+        ItemCache.Entry entry = cache.get(1L, 1L, this::load);
+        cache.invalidate(1L);
+
+        cache.putBookings(1L, entry, null, null);
+
+        ItemCache.Entry reloaded = cache.get(1L, 1L, this::load);
+        assertEquals(2, loads.get());
+        assertFalse(reloaded.hasBookingsAt(now));
+        assertNull(reloaded.getLastBooking());
+    }
+
+    private ItemCache.Entry load(Long id) {
+        return load(id, 1L);
+    }
+
+    private ItemCache.Entry load(Long id, long version) {
+        loads.incrementAndGet();
+        ItemDto item = new ItemDto(id, "item", "description", true, null);
+        CommentDto comment = new CommentDto(1L, "text", "author", now);
+        return new ItemCache.Entry(version, 1L, item, List.of(comment));
+    }
+}
@@ -8,22 +8,32 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.item.controller.ItemController;
 import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
 import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.util.ResourceVersionRepository;
+import ru.practicum.server.util.ResourceVersions;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemController.class)
+@Import(ResourceVersions.class)
 @AutoConfigureMockMvc
 class ItemControllerTest {
     @Autowired
@@ -35,6 +45,9 @@ class ItemControllerTest {
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private ResourceVersionRepository resourceVersionRepository;
+
     private ItemDto itemDto;
     private CommentDto commentDto;
 
@@ -93,6 +106,58 @@ class ItemControllerTest {
         Mockito.verify(itemService).getById(itemId, userId);
     }
 
+    @SneakyThrows
+    @Test
+    void getById_whenEtagIsCurrent_thenNotModifiedWithoutReading() {
+        Long itemId = 1L;
+        Mockito.when(resourceVersionRepository.findVersion(ResourceVersions.item(itemId)))
+                .thenReturn(Optional.of(1L));
+        Mockito.when(itemService.getById(Mockito.anyLong(), Mockito.anyLong())).thenReturn(itemDto);
+
+        String etag = mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        Mockito.verify(itemService, Mockito.times(1)).getById(itemId, 1L);
+
+        // another user gets another representation
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", 2)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        Mockito.when(resourceVersionRepository.findVersion(ResourceVersions.item(itemId)))
+                .thenReturn(Optional.of(2L));
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        Mockito.verify(itemService, Mockito.times(2)).getById(itemId, 1L);
+    }
+
+    @SneakyThrows
+    @Test
+    void getById_whenItemIsNotFound_thenNoEtag() {
+        Long itemId = 1L;
+        Mockito.when(resourceVersionRepository.findVersion(ResourceVersions.item(itemId)))
+                .thenReturn(Optional.of(1L));
+        Mockito.when(itemService.getById(Mockito.anyLong(), Mockito.anyLong()))
+                .thenThrow(new NotFoundException("Not found Item with Id:" + itemId));
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
     @SneakyThrows
     @Test
     void create_whenUserIsValid_thenReturnedOk() {
@@ -220,4 +285,24 @@ class ItemControllerTest {
 
         assertEquals(objectMapper.writeValueAsString(commentDto), result);
     }
-}
\ No newline at end of file
+
+    @SneakyThrows
+    @Test
+    void getAvailability() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        LocalDateTime end = start.plusDays(1);
+        ItemAvailabilityDto availabilityDto = new ItemAvailabilityDto(1L, start, end, true, List.of());
+
+        Mockito.when(itemService.getAvailability(1L, start, end)).thenReturn(availabilityDto);
+
+        String result = mockMvc.perform(get("/items/{id}/availability", 1L)
+                        .param("start", start.toString())
+                        .param("end", end.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(availabilityDto), result);
+    }
+}
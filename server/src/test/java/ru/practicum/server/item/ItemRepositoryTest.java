@@ -4,9 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import ru.practicum.server.item.dto.ItemDto;
+import ru.practicum.server.item.dto.ItemSearchDto;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.ItemRepository;
 import ru.practicum.server.request.model.ItemRequest;
@@ -15,6 +14,7 @@ import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -51,29 +51,44 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void search() {
-        Boolean available = true;
-        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"));
-        List<Item> expected = List.of(item1, item2);
-
-        List<Item> actual1 = itemRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAndAvailable("item", "item", available);
-        assertEquals(expected, actual1);
-        assertEquals(2, actual1.size());
-
-        List<Item> actual2 = itemRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAndAvailable("ITEM", "ITEM", available);
-        assertEquals(expected, actual2);
-        assertEquals(2, actual2.size());
-
-
-        List<Item> actual3 = itemRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAndAvailable("desc", "desc", available);
-        assertEquals(expected, actual3);
-        assertEquals(2, actual3.size());
-
-        List<Item> actual4 = itemRepository
-                .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAndAvailable("ReturnEmpty", "ReturnEmpty", available);
-        assertEquals(List.of(), actual4);
+    void findAllForSearch() {
+        item2.setRequest(itemRequest);
+        itemRepository.save(item2);
+
+        List<ItemSearchDto> expected = List.of(
+                new ItemSearchDto(item1.getId(), user.getId(), "item bag", "description", true, null),
+                new ItemSearchDto(item2.getId(), user.getId(), "item table", "description", true,
+                        itemRequest.getId()));
+
+        List<ItemSearchDto> actual = itemRepository.findAllForSearch();
+        actual.sort(Comparator.comparing(ItemSearchDto::getId));
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void findAllForSearchUpdatedAfter_shouldReturnItemsWrittenSince() {
+        itemRepository.flush();
+        LocalDateTime since = LocalDateTime.now();
+        item1.setName("item bag updated");
+        itemRepository.saveAndFlush(item1);
+
+        List<ItemSearchDto> actual = itemRepository.findAllForSearchUpdatedAfter(since);
+
+        assertEquals(List.of(new ItemSearchDto(item1.getId(), user.getId(), "item bag updated", "description", true,
+                null)), actual);
+    }
+
+    @Test
+    void findAllByOwnerId_shouldReturnItemsWithAndWithoutRequest() {
+        item2.setRequest(itemRequest);
+        itemRepository.save(item2);
+
+        List<ItemDto> expected = List.of(
+                new ItemDto(item1.getId(), "item bag", "description", true, null),
+                new ItemDto(item2.getId(), "item table", "description", true, itemRequest.getId()));
+
+        assertEquals(expected, itemRepository.findAllByOwnerId(user.getId()));
+        assertEquals(List.of(expected.get(1)), itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId())));
     }
-}
\ No newline at end of file
+}
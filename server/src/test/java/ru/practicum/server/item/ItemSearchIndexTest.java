@@ -0,0 +1,130 @@
+package ru.practicum.server.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.item.dto.ItemSearchDto;
+import ru.practicum.server.item.service.ItemSearchIndex;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchIndexTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new ItemSearchIndex(100, Duration.ofMinutes(1));
+        index.load(List.of(
+                new ItemSearchDto(1L, 1L, "Дрель", "Простая дрель", true, null),
+                new ItemSearchDto(2L, 1L, "Аккумуляторная дрель", "Аккумуляторная дрель + аккумулятор", true, null),
+                new ItemSearchDto(3L, 2L, "Отвертка", "Аккумуляторная отвертка", false, null),
+                new ItemSearchDto(4L, 2L, "Garden hose", "Long hose for watering", true, 1L)));
+    }
+
+    @Test
+    void search_shouldMatchPrefixesIgnoringCase() {
+        assertEquals(List.of(2L), index.search("аккУМУляторная"));
+        assertEquals(List.of(4L), index.search("HOS"));
+        assertEquals(List.of(), index.search("ose"));
+    }
+
+    @Test
+    void search_shouldRankByRelevance() {
+        assertEquals(List.of(1L, 2L), index.search("дрель"));
+    }
+
+    @Test
+    void search_shouldMatchInflectedForms() {
+        assertEquals(List.of(1L, 2L), index.search("дрели"));
+        assertEquals(List.of(4L), index.search("hoses"));
+    }
+
+    @Test
+    void search_shouldRequireAllWords() {
+        assertEquals(List.of(4L), index.search("garden watering"));
+        assertEquals(List.of(), index.search("garden дрель"));
+    }
+
+    @Test
+    void search_shouldSkipUnavailableItems() {
+        assertEquals(List.of(), index.search("отвертка"));
+    }
+
+    @Test
+    void put_shouldReplacePreviousVersion() {
+        index.put(new ItemSearchDto(4L, 2L, "Watering can", "Metal can", true, null));
+
+        assertEquals(List.of(), index.search("hose"));
+        assertEquals(List.of(4L), index.search("can"));
+    }
+
+    @Test
+    void removeByOwner_shouldRemoveOwnerItems() {
+        index.removeByOwner(1L);
+
+        assertEquals(List.of(), index.search("дрель"));
+        assertEquals(List.of(4L), index.search("hose"));
+    }
+
+    @Test
+    void load_shouldKeepWritesMadeWhileReading() {
+        index.load(() -> {
+            index.put(new ItemSearchDto(5L, 2L, "Tent", "Tent for two", true, null));
+            return List.of(new ItemSearchDto(4L, 2L, "Garden hose", "Long hose for watering", true, 1L));
+        });
+
+        assertEquals(List.of(5L), index.search("tent"));
+        assertEquals(List.of(4L), index.search("hose"));
+        assertEquals(List.of(), index.search("дрель"));
+    }
+
+    @Test
+    void search_shouldAnswerOnlyBestRankedItems() {
+        ItemSearchIndex limited = new ItemSearchIndex(1, Duration.ofMinutes(1));
+        limited.load(List.of(
+                new ItemSearchDto(1L, 1L, "Дрель", "Простая дрель", true, null),
+                new ItemSearchDto(2L, 1L, "Аккумуляторная дрель", "Аккумуляторная дрель + аккумулятор", true, null)));
+
+        assertEquals(List.of(1L), limited.search("дрель"));
+    }
+
+    @Test
+    void refresh_shouldPutItemsWrittenSincePreviousReadLessOverlap() {
+        AtomicReference<LocalDateTime> since = new AtomicReference<>();
+
+        index.refresh(after -> {
+            since.set(after);
+            return List.of(new ItemSearchDto(1L, 1L, "Перфоратор", "Мощный перфоратор", true, null),
+                    new ItemSearchDto(5L, 2L, "Tent", "Tent for two", true, null));
+        });
+
+        assertTrue(!since.get().isAfter(LocalDateTime.now().minusMinutes(1)));
+        assertEquals(List.of(2L), index.search("дрель"));
+        assertEquals(List.of(1L), index.search("перфоратор"));
+        assertEquals(List.of(5L), index.search("tent"));
+    }
+
+    @Test
+    void refresh_whenNotLoaded_shouldNotRead() {
+        ItemSearchIndex empty = new ItemSearchIndex(100, Duration.ofMinutes(1));
+
+        empty.refresh(after -> {
+            throw new AssertionError("read before the index was loaded");
+        });
+
+        assertEquals(List.of(), empty.search("дрель"));
+    }
+
+    @Test
+    void removeAll_shouldRemoveItems() {
+        index.removeAll(List.of(1L, 4L));
+
+        assertEquals(List.of(2L), index.search("дрель"));
+        assertEquals(List.of(), index.search("hose"));
+    }
+}
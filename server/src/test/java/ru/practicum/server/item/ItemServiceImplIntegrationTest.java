@@ -90,7 +90,10 @@ class ItemServiceImplIntegrationTest {
     void search() {
         String text = "desc";
 
-        ItemDto itemDto = ItemMapper.toItemDto(item);
+        ItemDto itemDto = itemService.create(new ItemShortDto(null, "item bag", "description", true, null),
+                userId);
+        // the item is indexed when the transaction commits, here it is picked up by a rebuild as if written elsewhere
+        itemService.loadSearchIndex();
 
         List<ItemDto> actualDtoList = itemService.search(text);
         List<ItemDto> expectedDtoList = List.of(itemDto);
@@ -7,16 +7,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Sort;
-import ru.practicum.server.booking.dto.BookingMapper;
+import ru.practicum.server.booking.dto.BookingForItemDto;
 import ru.practicum.server.booking.model.Booking;
 import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.model.ItemBookingSummary;
 import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.BookingAvailabilityIndex;
+import ru.practicum.server.booking.service.ItemBookingSummaries;
+import ru.practicum.server.exception.BadRequestException;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.item.dto.CommentDto;
+import ru.practicum.server.item.dto.CommentForItemDto;
 import ru.practicum.server.item.dto.CommentMapper;
 import ru.practicum.server.item.dto.CommentShortDto;
+import ru.practicum.server.item.dto.ItemAvailabilityDto;
 import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.item.dto.ItemMapper;
 import ru.practicum.server.item.dto.ItemShortDto;
@@ -24,19 +30,27 @@ import ru.practicum.server.item.model.Comment;
 import ru.practicum.server.item.model.Item;
 import ru.practicum.server.item.repository.CommentRepository;
 import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemCache;
+import ru.practicum.server.item.service.ItemSearchIndex;
 import ru.practicum.server.item.service.ItemServiceImpl;
 import ru.practicum.server.request.model.ItemRequest;
 import ru.practicum.server.request.repository.ItemRequestRepository;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.util.BatchResultDto;
+import ru.practicum.server.util.ResourceVersions;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 class ItemServiceImplTest {
@@ -53,6 +67,16 @@ class ItemServiceImplTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Spy
+    private BookingAvailabilityIndex availabilityIndex = new BookingAvailabilityIndex();
+    @Spy
+    private ItemSearchIndex searchIndex = new ItemSearchIndex(100, Duration.ofMinutes(1));
+    @Spy
+    private ItemCache itemCache = new ItemCache(100, Duration.ofMinutes(1));
+    @Mock
+    private ItemBookingSummaries bookingSummaries;
+    @Mock
+    private ResourceVersions resourceVersions;
 
     private User user;
     private ItemDto itemDto;
@@ -60,6 +84,7 @@ class ItemServiceImplTest {
     private Item item;
     private Comment comment;
     private Booking booking;
+    private CommentForItemDto commentForItemDto;
     private ItemRequest itemRequest;
     private ItemDto itemDtoResponse;
 
@@ -89,6 +114,7 @@ class ItemServiceImplTest {
         booking = new Booking(1L, null, null, item, user, BookingStatus.WAITING);
 
         comment = new Comment(1L, "comment", item, user, null);
+        commentForItemDto = new CommentForItemDto(1L, item.getId(), "comment", "Alex", null);
 
         commentShortDto = new CommentShortDto(1L, "comment", "Alex", null);
     }
@@ -98,23 +124,23 @@ class ItemServiceImplTest {
     void getByUserId_shouldReturnItemDtoList() {
 
         Long userId = 1L;
-        List<Item> page = List.of(item);
-        Sort sort = Sort.by(Sort.Direction.ASC, "id");
-
-        Mockito.when(itemRepository.findAllByOwnerId(user.getId(), sort)).thenReturn(page);
+        Mockito.when(itemRepository.findAllByOwnerId(user.getId())).thenReturn(List.of(ItemMapper.toItemDto(item)));
 
-        Mockito.when(bookingRepository.findFirstByItemIdInAndStartLessThanEqualAndStatus(Mockito.any(),
-                Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Optional.of(booking));
+        BookingForItemDto lastBooking = new BookingForItemDto(1L, LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1), item.getId(), user.getId());
+        BookingForItemDto nextBooking = new BookingForItemDto(2L, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), item.getId(), user.getId());
+        Mockito.when(bookingSummaries.get(Mockito.eq(List.of(item.getId())), Mockito.any()))
+                .thenReturn(Map.of(item.getId(), summary(item.getId(), lastBooking, nextBooking)));
 
-        Mockito.when(bookingRepository.findFirstByItemIdInAndStartAfterAndStatus(Mockito.any(),
-                Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(Optional.of(booking));
-
-        Mockito.when(commentRepository.findByItemIdIn(Mockito.any(), Mockito.any())).thenReturn(List.of(comment));
+        // comment id differs from item id, so comments must be grouped by their item
+        CommentForItemDto itemComment = new CommentForItemDto(7L, item.getId(), "comment", "Alex", null);
+        Mockito.when(commentRepository.findAllByItemIdIn(List.of(item.getId()))).thenReturn(List.of(itemComment));
 
         itemDtoResponse = ItemMapper.toItemDto(item);
-        itemDtoResponse.setComments(List.of(CommentMapper.toCommentDto(comment)));
-        itemDtoResponse.setLastBooking(BookingMapper.toBookingForItemDto(booking));
-        itemDtoResponse.setNextBooking(BookingMapper.toBookingForItemDto(booking));
+        itemDtoResponse.setComments(List.of(CommentMapper.toCommentDto(itemComment)));
+        itemDtoResponse.setLastBooking(lastBooking);
+        itemDtoResponse.setNextBooking(nextBooking);
 
         List<ItemDto> expectedDtoList = List.of(itemDtoResponse);
         List<ItemDto> actualDtoList = itemService.getAll(userId);
@@ -127,6 +153,7 @@ class ItemServiceImplTest {
         Long userId = 1L;
         Long itemId = 1L;
 
+        Mockito.when(resourceVersions.version(ResourceVersions.item(itemId))).thenReturn(Optional.of(1L));
         Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
         Mockito.when(commentRepository.findAllByItemId(Mockito.anyLong())).thenReturn(Collections.emptyList());
 
@@ -135,33 +162,42 @@ class ItemServiceImplTest {
 
     @Test
     void getById_shouldReturnItemNotFoundException() {
-        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
         Long itemId = 999L;
         Long userId = 1L;
+        Mockito.when(resourceVersions.version(ResourceVersions.item(itemId))).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> itemService.getById(itemId, userId));
+        Mockito.verifyNoInteractions(itemRepository);
     }
 
     @Test
     void search() {
-        Mockito.when(itemRepository
-                        .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAndAvailable("text",
-                                "text", true))
-                .thenReturn(List.of(item));
+        searchIndex.put(ItemMapper.toItemSearchDto(item));
 
         List<ItemDto> expectedDtoList = List.of(ItemMapper.toItemDto(item));
-        List<ItemDto> actualDtoList = itemService.search("text");
+        Mockito.when(itemRepository.findAllAvailableByIdIn(List.of(item.getId()))).thenReturn(expectedDtoList);
+        List<ItemDto> actualDtoList = itemService.search("DESCR");
 
         assertEquals(expectedDtoList, actualDtoList);
     }
 
+    @Test
+    void search_whenItemIsNotInDatabase_shouldDropItFromIndex() {
+        searchIndex.put(ItemMapper.toItemSearchDto(item));
+        Mockito.when(itemRepository.findAllAvailableByIdIn(List.of(item.getId()))).thenReturn(List.of());
+
+        assertEquals(List.of(), itemService.search("DESCR"));
+        assertEquals(List.of(), searchIndex.search("DESCR"));
+    }
+
     @Test
     void getByIdWithUserIsNotOwner_shouldFoundItemDtoWithoutBooking() {
         Long userId = 1L;
         Long itemId = 1L;
 
+        Mockito.when(resourceVersions.version(ResourceVersions.item(itemId))).thenReturn(Optional.of(1L));
         Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        Mockito.when(commentRepository.findAllByItemId(Mockito.any())).thenReturn(List.of(comment));
+        Mockito.when(commentRepository.findAllByItemId(Mockito.any())).thenReturn(List.of(commentForItemDto));
 
         itemDto = ItemMapper.toItemDto(item);
         itemDto.setComments(List.of(CommentMapper.toCommentDto(comment)));
@@ -173,6 +209,75 @@ class ItemServiceImplTest {
         assertEquals(expectedDto, actualDto);
     }
 
+    @Test
+    void getById_shouldServeRepeatedCallsFromCache() {
+        Long itemId = 1L;
+        Long userId = 2L;
+
+        Mockito.when(resourceVersions.version(ResourceVersions.item(itemId))).thenReturn(Optional.of(1L));
+        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        Mockito.when(commentRepository.findAllByItemId(itemId)).thenReturn(List.of(commentForItemDto));
+
+        ItemDto first = itemService.getById(itemId, userId);
+        first.getComments().clear();
+        ItemDto second = itemService.getById(itemId, userId);
+
+        assertEquals(1, second.getComments().size());
+        Mockito.verify(itemRepository, Mockito.times(1)).findById(itemId);
+        Mockito.verify(commentRepository, Mockito.times(1)).findAllByItemId(itemId);
+    }
+
+    @Test
+    void getById_shouldReloadAfterUpdate() {
+        Long itemId = 1L;
+        Long userId = 1L;
+
+        Mockito.when(resourceVersions.version(ResourceVersions.item(itemId))).thenReturn(Optional.of(1L));
+        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        Mockito.when(itemRepository.save(Mockito.any())).thenReturn(item);
+
+        itemService.getById(itemId, 2L);
+        itemService.update(updateItemShortDto, itemId, userId);
+        ItemDto actualDto = itemService.getById(itemId, 2L);
+
+        assertEquals("new name", actualDto.getName());
+        Mockito.verify(commentRepository, Mockito.times(2)).findAllByItemId(itemId);
+    }
+
+    @Test
+    void getById_shouldReloadWhenVersionChangedOnAnotherInstance() {
+        Long itemId = 1L;
+
+        Mockito.when(resourceVersions.version(ResourceVersions.item(itemId)))
+                .thenReturn(Optional.of(1L), Optional.of(1L), Optional.of(2L));
+        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+
+        itemService.getById(itemId, 2L);
+        itemService.getById(itemId, 2L);
+        itemService.getById(itemId, 2L);
+
+        Mockito.verify(itemRepository, Mockito.times(2)).findById(itemId);
+    }
+
+    @Test
+    void getById_shouldReuseOwnerBookingsUntilNextBookingStarts() {
+        Long itemId = 1L;
+        Long userId = 1L;
+        BookingForItemDto nextBooking = new BookingForItemDto(2L, LocalDateTime.now().plusDays(1),
+                LocalDateTime.now().plusDays(2), itemId, 2L);
+
+        Mockito.when(resourceVersions.version(ResourceVersions.item(itemId))).thenReturn(Optional.of(1L));
+        Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        Mockito.when(bookingSummaries.get(Mockito.eq(List.of(itemId)), Mockito.any()))
+                .thenReturn(Map.of(itemId, summary(itemId, null, nextBooking)));
+
+        itemService.getById(itemId, userId);
+        ItemDto actualDto = itemService.getById(itemId, userId);
+
+        assertEquals(nextBooking, actualDto.getNextBooking());
+        Mockito.verify(bookingSummaries, Mockito.times(1)).get(Mockito.eq(List.of(itemId)), Mockito.any());
+    }
+
     @Test
     void create_shouldSaveItemWithItemRequest() {
         Long userId = 1L;
@@ -200,6 +305,27 @@ class ItemServiceImplTest {
         Mockito.verify(itemRepository, Mockito.never()).save(Mockito.any());
     }
 
+    @Test
+    void createAll_shouldReportRowsWithUnknownRequest() {
+        Long userId = 1L;
+        List<ItemShortDto> batch = List.of(
+                new ItemShortDto(null, "name", "description", true, 1L),
+                new ItemShortDto(null, "name", "description", true, 999L),
+                new ItemShortDto(null, "name", "description", true, null));
+
+        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        Mockito.when(itemRequestRepository.findAllById(Mockito.any())).thenReturn(List.of(itemRequest));
+
+        List<BatchResultDto<ItemDto>> actual = itemService.createAll(batch, userId);
+
+        assertEquals(3, actual.size());
+        assertEquals(1L, actual.get(0).getResult().getRequestId());
+        assertEquals("Not found Request with Id:999", actual.get(1).getError());
+        assertEquals(2, actual.get(2).getIndex());
+        Mockito.verify(itemRequestRepository, Mockito.times(1)).findAllById(Mockito.any());
+        Mockito.verify(itemRepository, Mockito.times(1)).saveAll(Mockito.anyCollection());
+    }
+
     @Test
     void update_shouldUpdateItemName() {
         Long itemId = 1L;
@@ -252,9 +378,8 @@ class ItemServiceImplTest {
         Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         Mockito.when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         Mockito.when(commentRepository.save(Mockito.any())).thenReturn(comment);
-        List<Booking> bookingList = List.of(booking);
-        Mockito.when(bookingRepository.findAllByBookerIdAndItemIdAndStatusEqualsAndEndIsBefore(Mockito.anyLong(), Mockito.anyLong(), Mockito.any(),
-                Mockito.any())).thenReturn(bookingList);
+        Mockito.when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(Mockito.anyLong(),
+                Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(true);
 
         CommentDto actualDdo = itemService.createComment(itemId, userId, commentShortDto);
 
@@ -266,7 +391,40 @@ class ItemServiceImplTest {
     @Test
     void delete_shouldDeleteItemAndReturnDeletedItem() {
         Long itemId = 1L;
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        availabilityIndex.reserve(itemId, 1L, start, start.plusDays(1));
+
         itemService.delete(itemId);
+
         Mockito.verify(itemRepository).deleteById(itemId);
+        assertTrue(availabilityIndex.getBusyPeriods(itemId, start, start.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void getAvailability_shouldReturnBusyPeriods() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        availabilityIndex.reserve(1L, 1L, start.plusDays(1), start.plusDays(2));
+
+        Mockito.when(itemRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(item));
+
+        ItemAvailabilityDto busy = itemService.getAvailability(1L, start, start.plusDays(3));
+        ItemAvailabilityDto free = itemService.getAvailability(1L, start.plusDays(2), start.plusDays(3));
+
+        assertEquals(false, busy.getAvailable());
+        assertEquals(1, busy.getBusy().size());
+        assertEquals(true, free.getAvailable());
+    }
+
+    @Test
+    void getAvailability_shouldReturnBadRequestExceptionWhenPeriodIsInvalid() {
+        LocalDateTime start = LocalDateTime.now();
+
+        assertThrows(BadRequestException.class, () -> itemService.getAvailability(1L, start, start));
+    }
+
+    private static ItemBookingSummary summary(Long itemId, BookingForItemDto last, BookingForItemDto next) {
+        ItemBookingSummary summary = new ItemBookingSummary(itemId);
+        summary.recompute(last, next, null);
+        return summary;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package ru.practicum.server.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.booking.service.ItemBookingSummaries;
+import ru.practicum.server.item.dto.CommentShortDto;
+import ru.practicum.server.item.dto.ItemShortDto;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.item.service.ItemService;
+import ru.practicum.server.request.model.ItemRequest;
+import ru.practicum.server.request.repository.ItemRequestRepository;
+import ru.practicum.server.support.HibernateStatistics;
+import ru.practicum.server.support.QueryCounter;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Transactional
+@HibernateStatistics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemServiceQueryCountTest {
+    private static final int ITEMS = 200;
+
+    private static final int BOOKINGS_PER_ITEM = 5;
+
+    private final ItemService itemService;
+
+    private final ItemRepository itemRepository;
+
+    private final UserRepository userRepository;
+
+    private final BookingRepository bookingRepository;
+
+    private final CommentRepository commentRepository;
+
+    private final ItemRequestRepository itemRequestRepository;
+
+    private final ItemBookingSummaries bookingSummaries;
+
+    private final EntityManager entityManager;
+
+    private QueryCounter queryCounter;
+    private User owner;
+    private User booker;
+    private Item item;
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void beforeEach() {
+        queryCounter = new QueryCounter(entityManager);
+        owner = userRepository.save(new User(null, "Alex", "alex.b@yandex.ru"));
+        booker = userRepository.save(new User(null, "Bill", "bill.d@yandex.ru"));
+        item = itemRepository.save(new Item(null, "bag", "description", true, owner, null));
+        bookingRepository.save(new Booking(null, now.minusDays(2), now.minusDays(1), item, booker,
+                BookingStatus.APPROVED));
+        commentRepository.save(new Comment(null, "comment", item, booker, now));
+        bookingSummaries.refresh(List.of(item.getId()));
+    }
+
+    @Test
+    void getAll_withManyItemsAndBookings() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Item(null, "item " + i, "description", true, owner, null));
+        }
+        itemRepository.saveAll(items);
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (Item saved : items) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                bookings.add(new Booking(null, now.plusDays(i - 2), now.plusDays(i - 2).plusHours(1), saved, booker,
+                        BookingStatus.APPROVED));
+            }
+            comments.add(new Comment(null, "comment", saved, booker, now));
+        }
+        bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+        bookingSummaries.refresh(items.stream().map(Item::getId).collect(Collectors.toList()));
+
+        queryCounter.assertAtMost(3, () -> itemService.getAll(owner.getId()));
+    }
+
+    @Test
+    void getById_byOwner() {
+        queryCounter.assertAtMost(3, () -> itemService.getById(item.getId(), owner.getId()));
+    }
+
+    @Test
+    void getById_byOtherUser() {
+        queryCounter.assertAtMost(2, () -> itemService.getById(item.getId(), booker.getId()));
+    }
+
+    @Test
+    void getById_cached() {
+        itemService.getById(item.getId(), owner.getId());
+
+        // only the version of the item is read, by a plain JDBC statement that Hibernate does not count
+
+        queryCounter.assertAtMost(0, () -> itemService.getById(item.getId(), owner.getId()));
+        queryCounter.assertAtMost(0, () -> itemService.getById(item.getId(), booker.getId()));
+    }
+
+    @Test
+    void create() {
+        ItemShortDto dto = new ItemShortDto(null, "table", "description", true, null);
+
+        // user lookup, item and booking summary inserts, plus a sequence call whenever the pool of 50 ids is used up
+        queryCounter.assertAtMost(4, () -> itemService.create(dto, owner.getId()));
+    }
+
+    @Test
+    void createAll() {
+        ItemRequest request = itemRequestRepository.save(new ItemRequest(null, "need a table", booker, now));
+        List<ItemShortDto> dtos = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            dtos.add(new ItemShortDto(null, "table " + i, "description", true, i % 2 == 0 ? request.getId() : null));
+        }
+
+        // user and request lookups, sequence calls and batched inserts of 50 items and 50 booking summaries
+        queryCounter.assertAtMost(2 + 5 + 4 + 4, () -> itemService.createAll(dtos, owner.getId()));
+    }
+
+    @Test
+    void update() {
+        ItemShortDto dto = new ItemShortDto(null, "new name", null, null, null);
+
+        queryCounter.assertAtMost(2, () -> itemService.update(dto, item.getId(), owner.getId()));
+    }
+
+    @Test
+    void delete() {
+        Item other = itemRepository.save(new Item(null, "table", "description", true, owner, null));
+
+        queryCounter.assertAtMost(2, () -> itemService.delete(other.getId()));
+    }
+
+    @Test
+    void search() {
+        // the items found by the index are read in one statement
+        queryCounter.assertAtMost(1, () -> itemService.search("bag"));
+    }
+
+    @Test
+    void createComment() {
+        CommentShortDto dto = new CommentShortDto(null, "great bag", null, null);
+
+        queryCounter.assertAtMost(4, () -> itemService.createComment(item.getId(), booker.getId(), dto));
+    }
+
+    @Test
+    void getAvailability() {
+        queryCounter.assertAtMost(1, () -> itemService.getAvailability(item.getId(), now, now.plusDays(1)));
+    }
+}
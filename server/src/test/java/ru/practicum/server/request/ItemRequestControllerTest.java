@@ -7,12 +7,15 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.server.request.controller.ItemRequestController;
 import ru.practicum.server.request.dto.ItemRequestDto;
 import ru.practicum.server.request.dto.ItemRequestDtoShort;
 import ru.practicum.server.request.service.ItemRequestService;
+import ru.practicum.server.util.ResourceVersionRepository;
+import ru.practicum.server.util.ResourceVersions;
 
 import java.util.List;
 
@@ -23,6 +26,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
+@Import(ResourceVersions.class)
 @AutoConfigureMockMvc
 class ItemRequestControllerTest {
     @Autowired
@@ -31,6 +35,8 @@ class ItemRequestControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private ItemRequestService itemRequestService;
+    @MockBean
+    private ResourceVersionRepository resourceVersionRepository;
 
     @SneakyThrows
     @Test
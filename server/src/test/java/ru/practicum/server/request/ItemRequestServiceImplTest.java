@@ -7,14 +7,15 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.server.exception.NotFoundException;
+import ru.practicum.server.item.dto.ItemDto;
 import ru.practicum.server.item.repository.ItemRepository;
 import ru.practicum.server.request.dto.ItemRequestDto;
 import ru.practicum.server.request.dto.ItemRequestDtoShort;
-import ru.practicum.server.request.model.ItemRequest;
 import ru.practicum.server.request.repository.ItemRequestRepository;
 import ru.practicum.server.request.service.ItemRequestServiceImpl;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.util.ResourceVersions;
 
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +37,8 @@ class ItemRequestServiceImplTest {
 
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ResourceVersions resourceVersions;
 
     @Test
     void create_shouldSaveItemRequest() {
@@ -68,13 +71,12 @@ class ItemRequestServiceImplTest {
     void getAllByRequester_shouldReturnItemRequestDtoList() {
         Long userId = 1L;
         User user = new User(userId, "Alex", "alex.b@yandex.ru");
-        ItemRequest itemRequest = new ItemRequest(1L, "description", user, null);
         ItemRequestDto itemRequestDto = new ItemRequestDto(1L, "description", userId,
                 null, List.of());
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
         Mockito.when(itemRequestRepository.findAllByRequesterId(Mockito.anyLong(), Mockito.any()))
-                .thenReturn(List.of(itemRequest));
+                .thenReturn(List.of(new ItemRequestDto(1L, "description", user.getId(), null)));
 
         List<ItemRequestDto> expectedDtoList = List.of(itemRequestDto);
         List<ItemRequestDto> actualDtoList = itemRequestService.getAllByRequester(userId, 0, 10);
@@ -102,13 +104,14 @@ class ItemRequestServiceImplTest {
         Long userId = 1L;
         User user = new User(userId, "Alex", "alex.b@yandex.ru");
 
-        ItemRequest itemRequest = new ItemRequest(1L, "description", user, null);
+        ItemDto item = new ItemDto(3L, "bag", "description", true, 1L);
         ItemRequestDto itemRequestDto = new ItemRequestDto(1L, "description", userId,
-                null, List.of());
+                null, List.of(item));
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
         Mockito.when(itemRequestRepository.findAllByRequesterIdNot(Mockito.anyLong(), Mockito.any()))
-                .thenReturn(List.of(itemRequest));
+                .thenReturn(List.of(new ItemRequestDto(1L, "description", user.getId(), null)));
+        Mockito.when(itemRepository.findAllByRequestIdIn(List.of(1L))).thenReturn(List.of(item));
 
         List<ItemRequestDto> expectedDtoList = List.of(itemRequestDto);
         List<ItemRequestDto> actualDtoList = itemRequestService.getAll(userId, 0, 10);
@@ -135,11 +138,11 @@ class ItemRequestServiceImplTest {
         Long userId = 1L;
         Long requestId = 1L;
         User user = new User(userId, "Alex", "alex.b@yandex.ru");
-        ItemRequest itemRequest = new ItemRequest(1L, "description",  user,null);
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRequestRepository.findById(Mockito.anyLong())).thenReturn(Optional.of(itemRequest));
-        Mockito.when(itemRepository.findByRequest_IdOrderById(Mockito.anyLong())).thenReturn(List.of());
+        Mockito.when(itemRequestRepository.findDtoById(Mockito.anyLong()))
+                .thenReturn(Optional.of(new ItemRequestDto(1L, "description", user.getId(), null)));
+        Mockito.when(itemRepository.findAllByRequestId(Mockito.anyLong())).thenReturn(List.of());
 
         ItemRequestDto expected = new ItemRequestDto(1L, "description", userId, null, List.of());
         ItemRequestDto actual = itemRequestService.getById(userId, requestId);
@@ -156,7 +159,7 @@ class ItemRequestServiceImplTest {
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getById(userId, requestId));
 
-        Mockito.verify(itemRequestRepository, Mockito.never()).findById(Mockito.anyLong());
+        Mockito.verify(itemRequestRepository, Mockito.never()).findDtoById(Mockito.anyLong());
     }
 
     @Test
@@ -165,7 +168,7 @@ class ItemRequestServiceImplTest {
         Long requestId = 999L;
 
         Mockito.when(userRepository.existsById(Mockito.anyLong())).thenReturn(true);
-        Mockito.when(itemRequestRepository.findById(Mockito.anyLong())).thenReturn(Optional.empty());
+        Mockito.when(itemRequestRepository.findDtoById(Mockito.anyLong())).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> itemRequestService.getById(userId, requestId));
     }
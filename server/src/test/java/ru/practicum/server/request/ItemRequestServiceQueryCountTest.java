@@ -0,0 +1,79 @@
+package ru.practicum.server.request;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.request.dto.ItemRequestDtoShort;
+import ru.practicum.server.request.model.ItemRequest;
+import ru.practicum.server.request.repository.ItemRequestRepository;
+import ru.practicum.server.request.service.ItemRequestService;
+import ru.practicum.server.support.HibernateStatistics;
+import ru.practicum.server.support.QueryCounter;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+
+@Transactional
+@HibernateStatistics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class ItemRequestServiceQueryCountTest {
+    private static final int REQUESTS = 50;
+
+    private final ItemRequestService itemRequestService;
+
+    private final ItemRequestRepository itemRequestRepository;
+
+    private final ItemRepository itemRepository;
+
+    private final UserRepository userRepository;
+
+    private final EntityManager entityManager;
+
+    private QueryCounter queryCounter;
+    private User requester;
+    private User owner;
+    private ItemRequest request;
+
+    @BeforeEach
+    void beforeEach() {
+        queryCounter = new QueryCounter(entityManager);
+        requester = userRepository.save(new User(null, "Alex", "alex.b@yandex.ru"));
+        owner = userRepository.save(new User(null, "Bill", "bill.d@yandex.ru"));
+        for (int i = 0; i < REQUESTS; i++) {
+            request = itemRequestRepository.save(new ItemRequest(null, "request " + i, requester,
+                    LocalDateTime.now().minusHours(i)));
+            itemRepository.save(new Item(null, "item " + i, "description", true, owner, request));
+            itemRepository.save(new Item(null, "other item " + i, "description", true, owner, request));
+        }
+    }
+
+    @Test
+    void create() {
+        ItemRequestDtoShort dto = new ItemRequestDtoShort(null, "need a bag", null, null);
+
+        queryCounter.assertAtMost(2, () -> itemRequestService.create(requester.getId(), dto));
+    }
+
+    @Test
+    void getById() {
+        queryCounter.assertAtMost(3, () -> itemRequestService.getById(owner.getId(), request.getId()));
+    }
+
+    @Test
+    void getAll() {
+        queryCounter.assertAtMost(3, () -> itemRequestService.getAll(owner.getId(), 0, REQUESTS));
+    }
+
+    @Test
+    void getAllByRequester() {
+        queryCounter.assertAtMost(3, () -> itemRequestService.getAllByRequester(requester.getId(), 0, REQUESTS));
+    }
+}
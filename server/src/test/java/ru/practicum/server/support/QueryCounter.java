@@ -0,0 +1,43 @@
+package ru.practicum.server.support;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements an action sends to the database using Hibernate statistics,
+ * which are enabled for the test class with {@link HibernateStatistics}.
+ * The persistence context is flushed and cleared before the action, so entities prepared by the test
+ * are not served from the first-level cache, and flushed after it, so pending writes are counted too.
+ */
+public class QueryCounter {
+    private final EntityManager entityManager;
+
+    private final Statistics statistics;
+
+    public QueryCounter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Hibernate statistics are disabled, statements can't be counted");
+        }
+    }
+
+    public long count(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    public void assertAtMost(long expected, Runnable action) {
+        long actual = count(action);
+        assertTrue(actual <= expected,
+                "Expected at most " + expected + " SQL statements but " + actual + " were executed");
+    }
+}
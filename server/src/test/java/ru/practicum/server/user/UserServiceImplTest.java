@@ -5,15 +5,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.server.booking.service.ItemBookingSummaries;
 import ru.practicum.server.exception.NotFoundException;
 import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.item.service.ItemCache;
+import ru.practicum.server.item.service.ItemSearchIndex;
 import ru.practicum.server.user.dto.UserDto;
 import ru.practicum.server.user.dto.UserMapper;
 import ru.practicum.server.user.model.User;
 import ru.practicum.server.user.repository.UserRepository;
 import ru.practicum.server.user.service.UserServiceImpl;
+import ru.practicum.server.util.BatchResultDto;
+import ru.practicum.server.util.ResourceVersions;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -28,6 +35,15 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private ItemSearchIndex searchIndex = new ItemSearchIndex(100, Duration.ofMinutes(1));
+    @Spy
+    private ItemCache itemCache = new ItemCache(100, Duration.ofMinutes(1));
+    @Mock
+    private ItemBookingSummaries bookingSummaries;
+    @Mock
+    private ResourceVersions resourceVersions;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -70,6 +86,22 @@ class UserServiceImplTest {
     }
 
 
+    @Test
+    void createAll_shouldRejectTakenAndRepeatedEmails() {
+        List<UserDto> batch = List.of(
+                new UserDto(null, "Alex", "alex.b@yandex.ru"),
+                new UserDto(null, "Anna", "anna@yandex.ru"),
+                new UserDto(null, "Anna", "anna@yandex.ru"));
+        Mockito.when(userRepository.findEmailsIn(Mockito.anyCollection())).thenReturn(List.of("alex.b@yandex.ru"));
+
+        List<BatchResultDto<UserDto>> actual = userService.createAll(batch);
+
+        assertEquals("User with email alex.b@yandex.ru already exists", actual.get(0).getError());
+        assertEquals("anna@yandex.ru", actual.get(1).getResult().getEmail());
+        assertEquals("User with email anna@yandex.ru already exists", actual.get(2).getError());
+        Mockito.verify(userRepository, Mockito.times(1)).saveAll(Mockito.anyCollection());
+    }
+
     @Test
     void update_shouldReturnUserNotFoundException() {
         UserDto dto = new UserDto(999L, "Alex", "alex.b@yandex.ru");
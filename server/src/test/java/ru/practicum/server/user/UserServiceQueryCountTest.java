@@ -0,0 +1,83 @@
+package ru.practicum.server.user;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.server.support.HibernateStatistics;
+import ru.practicum.server.support.QueryCounter;
+import ru.practicum.server.user.dto.UserDto;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+import ru.practicum.server.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@Transactional
+@HibernateStatistics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+class UserServiceQueryCountTest {
+    private static final int BATCH = 100;
+
+    private final UserService userService;
+
+    private final UserRepository userRepository;
+
+    private final EntityManager entityManager;
+
+    private QueryCounter queryCounter;
+    private User user;
+
+    @BeforeEach
+    void beforeEach() {
+        queryCounter = new QueryCounter(entityManager);
+        user = userRepository.save(new User(null, "Alex", "alex.b@yandex.ru"));
+    }
+
+    @Test
+    void getAll() {
+        queryCounter.assertAtMost(1, userService::getAll);
+    }
+
+    @Test
+    void getById() {
+        queryCounter.assertAtMost(1, () -> userService.getById(user.getId()));
+    }
+
+    @Test
+    void create() {
+        UserDto dto = new UserDto(null, "Bill", "bill.d@yandex.ru");
+
+        // the insert, plus a sequence call whenever the pool of 50 ids is used up
+        queryCounter.assertAtMost(2, () -> userService.create(dto));
+    }
+
+    @Test
+    void createAll() {
+        List<UserDto> dtos = IntStream.range(0, BATCH)
+                .mapToObj(i -> new UserDto(null, "user " + i, "user" + i + "@yandex.ru"))
+                .collect(Collectors.toList());
+
+        // email lookup, sequence calls and batched inserts of 50 rows
+        queryCounter.assertAtMost(1 + 3 + 2, () -> userService.createAll(dtos));
+    }
+
+    @Test
+    void update() {
+        UserDto dto = new UserDto(null, "Alexander", null);
+
+        queryCounter.assertAtMost(2, () -> userService.update(dto, user.getId()));
+    }
+
+    @Test
+    void delete() {
+        // the summaries of the items booked by the user are expired before the cascade removes the bookings
+        queryCounter.assertAtMost(3, () -> userService.delete(user.getId()));
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.server.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import ru.practicum.server.booking.model.Booking;
+import ru.practicum.server.booking.model.BookingStatus;
+import ru.practicum.server.booking.repository.BookingRepository;
+import ru.practicum.server.item.model.Comment;
+import ru.practicum.server.item.model.Item;
+import ru.practicum.server.item.repository.CommentRepository;
+import ru.practicum.server.item.repository.ItemRepository;
+import ru.practicum.server.user.model.User;
+import ru.practicum.server.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ResourceVersionRepository.class, ResourceVersions.class})
+class ResourceVersionRepositoryTest {
+    @Autowired
+    private ResourceVersionRepository resourceVersionRepository;
+    @Autowired
+    private ResourceVersions resourceVersions;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    void add() {
+        owner = userRepository.saveAndFlush(new User(null, "Alex", "alex.b@yandex.ru"));
+        item = itemRepository.saveAndFlush(new Item(null, "bag", "description", true, owner, null));
+    }
+
+    @Test
+    void increment_shouldChangeOnlyGivenVersions() {
+        long itemVersion = version(ResourceVersions.item(item.getId()));
+        long ownerItemsVersion = version(ResourceVersions.ownerItems(owner.getId()));
+        long bookingsVersion = version(ResourceVersions.bookings(owner.getId()));
+        long requestsVersion = version(ResourceVersions.REQUESTS);
+
+        resourceVersions.changed(ResourceVersions.item(item.getId()), ResourceVersions.ownerItems(owner.getId()));
+
+        assertEquals(itemVersion + 1, version(ResourceVersions.item(item.getId())));
+        assertEquals(ownerItemsVersion + 1, version(ResourceVersions.ownerItems(owner.getId())));
+        assertEquals(bookingsVersion, version(ResourceVersions.bookings(owner.getId())));
+        assertEquals(requestsVersion, version(ResourceVersions.REQUESTS));
+    }
+
+    @Test
+    void changedItemViews_shouldChangeItemOwnerAndBookerVersions() {
+        User booker = userRepository.saveAndFlush(new User(null, "Kate", "kate@yandex.ru"));
+        User other = userRepository.saveAndFlush(new User(null, "Mike", "mike@yandex.ru"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingRepository.saveAndFlush(new Booking(null, start, start.plusDays(1), item, booker,
+                BookingStatus.WAITING));
+        List<ResourceVersions.Key> changed = List.of(ResourceVersions.item(item.getId()),
+                ResourceVersions.ownerItems(owner.getId()), ResourceVersions.bookings(owner.getId()),
+                ResourceVersions.bookings(booker.getId()));
+        List<ResourceVersions.Key> unchanged = List.of(ResourceVersions.bookings(other.getId()),
+                ResourceVersions.ownerItems(booker.getId()), ResourceVersions.REQUESTS);
+        List<Long> changedVersions = versions(changed);
+        List<Long> unchangedVersions = versions(unchanged);
+
+        resourceVersions.changedItemViews(item.getId());
+
+        for (int i = 0; i < changed.size(); i++) {
+            assertEquals(changedVersions.get(i) + 1, version(changed.get(i)));
+        }
+        assertEquals(unchangedVersions, versions(unchanged));
+    }
+
+    @Test
+    void changedUserViews_shouldChangeCommentedItemsAndOwnBookings() {
+        User author = userRepository.saveAndFlush(new User(null, "Kate", "kate@yandex.ru"));
+        Item other = itemRepository.saveAndFlush(new Item(null, "pen", "description", true, owner, null));
+        commentRepository.saveAndFlush(new Comment(null, "comment", item, author, LocalDateTime.now()));
+        List<ResourceVersions.Key> changed = List.of(ResourceVersions.item(item.getId()),
+                ResourceVersions.ownerItems(owner.getId()), ResourceVersions.bookings(author.getId()));
+        List<ResourceVersions.Key> unchanged = List.of(ResourceVersions.item(other.getId()),
+                ResourceVersions.REQUESTS);
+        List<Long> changedVersions = versions(changed);
+        List<Long> unchangedVersions = versions(unchanged);
+
+        resourceVersions.changedUserViews(author.getId());
+
+        for (int i = 0; i < changed.size(); i++) {
+            assertEquals(changedVersions.get(i) + 1, version(changed.get(i)));
+        }
+        assertEquals(unchangedVersions, versions(unchanged));
+    }
+
+    @Test
+    void findVersion_whenRowDoesNotExist_thenEmpty() {
+        assertTrue(resourceVersionRepository.findVersion(ResourceVersions.item(item.getId() + 1)).isEmpty());
+    }
+
+    private List<Long> versions(List<ResourceVersions.Key> keys) {
+        return keys.stream().map(this::version).collect(Collectors.toList());
+    }
+
+    private long version(ResourceVersions.Key key) {
+        Optional<Long> version = resourceVersionRepository.findVersion(key);
+        assertTrue(version.isPresent());
+        return version.get();
+    }
+}